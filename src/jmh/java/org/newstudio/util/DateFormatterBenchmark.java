@@ -0,0 +1,69 @@
+package org.newstudio.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 {@link DateFormatter} 與原本每次建立 SimpleDateFormat 的 toDateTimeString。
+ * 時間點每次前進一秒，模擬寫入 log 時的連續時間。
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhArgs='DateFormatterBenchmark -prof gc'
+ * </pre>
+ *
+ * @author Scribe Huang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateFormatterBenchmark {
+	private static final String PATTERN = "yyyy-MM-dd HH:mm:ss";
+	/** 2017-01-01T00:00:00Z */
+	private static final long START = 1483228800000L;
+
+	private final DateFormatter formatter = DateFormatter.of(PATTERN);
+	private final char[] chars = new char[formatter.length()];
+	private long next = START;
+
+	private long nextTime() {
+		next += 1000;
+		return next;
+	}
+
+	@Benchmark
+	public String simpleDateFormat() {
+		// 改寫前的 DateUtil.toDateTimeString
+		SimpleDateFormat sdf = new SimpleDateFormat(PATTERN);
+		return sdf.format(new Date(nextTime()));
+	}
+
+	@Benchmark
+	public String toDateTimeString() {
+		return DateUtil.toDateTimeString(new Date(nextTime()));
+	}
+
+	@Benchmark
+	public String formatString() {
+		return formatter.format(nextTime());
+	}
+
+	@Benchmark
+	public char[] formatChars() {
+		formatter.format(nextTime(), chars, 0);
+		return chars;
+	}
+}
@@ -0,0 +1,95 @@
+package org.newstudio.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 {@link ParallelExecutor.Mode#FIXED} 與 {@link ParallelExecutor.Mode#WORK_STEALING} 處理大量細小工作的處理量。
+ * FIXED 的所有執行緒共用一個佇列，執行緒越多競爭越明顯，需在多核心的機器上執行才有意義。
+ *
+ * @author Scribe Huang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelExecutorBenchmark {
+	private static final int TASKS = 10000;
+
+	@Param({"FIXED", "WORK_STEALING"})
+	public ParallelExecutor.Mode mode;
+
+	/** 每個工作消耗的 CPU，單位見 {@link Blackhole#consumeCPU(long)}。 */
+	@Param({"0", "100"})
+	public long work;
+
+	private ParallelExecutor executor;
+	private Runnable task;
+
+	@Setup
+	public void setUp() {
+		executor = new ParallelExecutor(mode, Runtime.getRuntime().availableProcessors(), "Bench-%d");
+		final long tokens = work;
+		task = new Runnable() {
+			@Override
+			public void run() {
+				Blackhole.consumeCPU(tokens);
+			}
+		};
+	}
+
+	@TearDown
+	public void tearDown() {
+		executor.waitParallel();
+	}
+
+	/**
+	 * 由一個執行緒提交所有工作。
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TASKS)
+	public void submitFromCaller() throws InterruptedException, ExecutionException {
+		for (int i = 0; i < TASKS; i++) {
+			executor.execute(task);
+		}
+		executor.await();
+	}
+
+	/**
+	 * 由池中的執行緒提交工作，work stealing 時工作放入提交者自己的佇列。
+	 */
+	@Benchmark
+	@OperationsPerInvocation(TASKS)
+	public void submitFromWorkers() throws InterruptedException, ExecutionException {
+		final int producers = executor.getThreadCount();
+		for (int p = 0; p < producers; p++) {
+			final int count = TASKS / producers + (p < TASKS % producers ? 1 : 0);
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < count; i++) {
+						executor.execute(task);
+					}
+				}
+			});
+		}
+		executor.await();
+	}
+}
@@ -0,0 +1,94 @@
+package org.newstudio.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 {@link IntLongPair} 與 boxed {@link Pair} 的建立及 HashMap 查詢。
+ * 配置量以 {@code -prof gc} 的 gc.alloc.rate.norm 觀察，每個 IntLongPair 為單一物件，
+ * Pair&lt;Integer, Long&gt; 另外需要兩個 box。
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhArgs='PrimitivePairBenchmark -prof gc'
+ * </pre>
+ *
+ * @author Scribe Huang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivePairBenchmark {
+	private static final int KEYS = 1 << 16;
+	private static final int LOOKUPS = 1024;
+
+	private final int[] ints = new int[KEYS];
+	private final long[] longs = new long[KEYS];
+	private final Map<Pair<Integer, Long>, Integer> boxedMap = new HashMap<>();
+	private final Map<IntLongPair, Integer> primitiveMap = new HashMap<>();
+	private int next;
+
+	@Setup
+	public void setUp() {
+		// 超出 Integer 及 Long 的快取範圍，boxing 時會配置物件
+		Random random = new Random(0);
+		for (int i = 0; i < KEYS; i++) {
+			ints[i] = 1000 + random.nextInt(1 << 20);
+			longs[i] = 1000 + random.nextInt(1 << 20);
+			boxedMap.put(Pair.of(ints[i], longs[i]), i);
+			primitiveMap.put(IntLongPair.of(ints[i], longs[i]), i);
+		}
+	}
+
+	@Benchmark
+	public Pair<Integer, Long> createBoxed() {
+		int i = next++ & (KEYS - 1);
+		return Pair.of(ints[i], longs[i]);
+	}
+
+	@Benchmark
+	public IntLongPair createPrimitive() {
+		int i = next++ & (KEYS - 1);
+		return IntLongPair.of(ints[i], longs[i]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public int lookupBoxed() {
+		int sum = 0;
+		for (int n = 0; n < LOOKUPS; n++) {
+			int i = next++ & (KEYS - 1);
+			Integer value = boxedMap.get(Pair.of(ints[i], longs[i]));
+			sum += value == null ? 0 : value;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public int lookupPrimitive() {
+		int sum = 0;
+		for (int n = 0; n < LOOKUPS; n++) {
+			int i = next++ & (KEYS - 1);
+			Integer value = primitiveMap.get(IntLongPair.of(ints[i], longs[i]));
+			sum += value == null ? 0 : value;
+		}
+		return sum;
+	}
+}
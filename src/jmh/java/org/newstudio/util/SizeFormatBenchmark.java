@@ -0,0 +1,87 @@
+package org.newstudio.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 {@link SizeFormat} 與原本以 DecimalFormat 實作的 {@link FileUtil#sizeByteToKilobyte(long)}。
+ *
+ * <pre>
+ * ./gradlew jmh -PjmhArgs='SizeFormatBenchmark -prof gc'
+ * </pre>
+ *
+ * @author Scribe Huang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SizeFormatBenchmark {
+	private static final int SIZES = 1024;
+
+	private final long[] sizes = new long[SIZES];
+	private final SizeFormat kilobyte = SizeFormat.fixed(SizeFormat.Base.JEDEC, 1, 2);
+	private final char[] chars = new char[kilobyte.maxLength()];
+	private NumberFormat sharedDecimalFormat;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		// 0 B 至 1 TB 之間，位數分布平均
+		Random random = new Random(0);
+		for (int i = 0; i < SIZES; i++) {
+			sizes[i] = random.nextLong() >>> (24 + random.nextInt(40));
+		}
+		sharedDecimalFormat = newDecimalFormat();
+	}
+
+	private long nextSize() {
+		return sizes[next++ & (SIZES - 1)];
+	}
+
+	private static NumberFormat newDecimalFormat() {
+		NumberFormat formatter = DecimalFormat.getInstance();
+		formatter.setMaximumFractionDigits(2);
+		formatter.setMinimumFractionDigits(2);
+		formatter.setGroupingUsed(false);
+		return formatter;
+	}
+
+	@Benchmark
+	public String decimalFormat() {
+		// 改寫前的 FileUtil.sizeByteToKilobyte
+		return newDecimalFormat().format((double) nextSize() / 1024);
+	}
+
+	@Benchmark
+	public String sharedDecimalFormat() {
+		// 重複使用同一個 DecimalFormat (非 Thread-safe)，只看格式化本身
+		return sharedDecimalFormat.format((double) nextSize() / 1024);
+	}
+
+	@Benchmark
+	public String sizeByteToKilobyte() {
+		return FileUtil.sizeByteToKilobyte(nextSize());
+	}
+
+	@Benchmark
+	public char[] sizeFormatChars() {
+		kilobyte.format(nextSize(), chars, 0);
+		return chars;
+	}
+}
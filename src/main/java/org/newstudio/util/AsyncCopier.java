@@ -0,0 +1,239 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 以 {@link AsynchronousFileChannel} 複製檔案。讀寫輪流進行，呼叫端不需等待。Thread-safe。
+ *
+ * 多數平台 (包含 Linux 等 Unix) 的 AsynchronousFileChannel 是模擬的：
+ * 每次讀寫都在傳入的執行緒池中以阻塞 I/O 執行，I/O 期間佔用一個執行緒。
+ * 同時進行的複製數受執行緒池大小限制，執行緒池須依阻塞的檔案 I/O 配置大小。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyAsync(Path, Path, ExecutorService, CopyListener)
+ */
+final class AsyncCopier implements Future<CopyResult> {
+	static final int BUFFER_SIZE = 128 << 10;
+
+	private final Path src;
+	private final Path dest;
+	private final CopyListener listener;
+	private final AsynchronousFileChannel in;
+	private final AsynchronousFileChannel out;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final long size;
+	private final long start = System.nanoTime();
+
+	private final AtomicBoolean done = new AtomicBoolean();
+	private final CountDownLatch latch = new CountDownLatch(1);
+	private volatile CopyResult result;
+	private volatile Throwable failure;
+
+	// 以下欄位只在目前唯一進行中的 I/O 的完成通知中存取
+	private long position;
+	private long lastReport = start;
+
+	private final CompletionHandler<Integer, Void> onRead = new CompletionHandler<Integer, Void>() {
+		@Override
+		public void completed(Integer n, Void attachment) {
+			if (n < 0) {
+				fail(new IOException("The source was truncated while copying: " + src));
+				return;
+			}
+			buffer.flip();
+			write();
+		}
+
+		@Override
+		public void failed(Throwable exc, Void attachment) {
+			fail(exc);
+		}
+	};
+
+	private final CompletionHandler<Integer, Void> onWrite = new CompletionHandler<Integer, Void>() {
+		@Override
+		public void completed(Integer n, Void attachment) {
+			position += n;
+			try {
+				report(false);
+			} catch (RuntimeException ex) {
+				fail(ex);
+				return;
+			}
+			if (buffer.hasRemaining()) {
+				write();
+			} else {
+				read();
+			}
+		}
+
+		@Override
+		public void failed(Throwable exc, Void attachment) {
+			fail(exc);
+		}
+	};
+
+	AsyncCopier(@Nonnull Path src, @Nonnull Path dest, @Nonnull ExecutorService executor,
+	            @Nonnull CopyListener listener) throws IOException {
+		this.src = src;
+		this.dest = dest;
+		this.listener = listener;
+		in = AsynchronousFileChannel.open(src, Collections.singleton(StandardOpenOption.READ), executor);
+		try {
+			out = AsynchronousFileChannel.open(dest, EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING), executor);
+			size = in.size();
+		} catch (IOException ex) {
+			in.close();
+			throw ex;
+		}
+	}
+
+	void start() {
+		read();
+	}
+
+	private void read() {
+		if (done.get()) {
+			return;
+		}
+		if (position >= size) {
+			finish();
+			return;
+		}
+		buffer.clear();
+		if (size - position < buffer.capacity()) {
+			buffer.limit((int) (size - position));
+		}
+		in.read(buffer, position, null, onRead);
+	}
+
+	private void write() {
+		if (done.get()) {
+			return;
+		}
+		out.write(buffer, position, null, onWrite);
+	}
+
+	private void report(boolean last) {
+		long now = System.nanoTime();
+		if (last || now - lastReport >= listener.getIntervalNanos()) {
+			lastReport = now;
+			long elapsed = now - start;
+			listener.onProgress(position, size, elapsed == 0 ? 0 : position * 1e9 / elapsed);
+		}
+	}
+
+	private void finish() {
+		CopyResult copied;
+		try {
+			closeChannels();
+			// 將檔案最後修改時間設成與來源檔相同
+			Files.setLastModifiedTime(dest, Files.getLastModifiedTime(src));
+			report(true);
+			copied = new CopyResult(position, System.nanoTime() - start, CopyStrategy.DIRECT_BUFFER);
+		} catch (IOException | RuntimeException ex) {
+			fail(ex);
+			return;
+		}
+		complete(copied, null);
+	}
+
+	private void fail(@Nonnull Throwable exc) {
+		complete(null, exc);
+	}
+
+	private boolean complete(@Nullable CopyResult copied, @Nullable Throwable exc) {
+		if (!done.compareAndSet(false, true)) {
+			return false;
+		}
+		closeChannels();
+		result = copied;
+		failure = exc;
+		latch.countDown();
+		listener.onComplete(copied, exc);
+		return true;
+	}
+
+	private void closeChannels() {
+		try {
+			in.close();
+		} catch (IOException ignored) {
+		}
+		try {
+			out.close();
+		} catch (IOException ignored) {
+		}
+	}
+
+	/**
+	 * 取消複製。進行中的 I/O 會因通道關閉而中止，目的檔保留已複製的部分。
+	 *
+	 * @param mayInterruptIfRunning 不使用，關閉通道即可中止 I/O
+	 * @return 是否由此呼叫取消
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return complete(null, new CancellationException("Copy cancelled: " + src));
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return failure instanceof CancellationException;
+	}
+
+	@Override
+	public boolean isDone() {
+		return latch.getCount() == 0;
+	}
+
+	@Override
+	public CopyResult get() throws InterruptedException, ExecutionException {
+		latch.await();
+		return getResult();
+	}
+
+	@Override
+	public CopyResult get(long timeout, @Nonnull TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		if (!latch.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return getResult();
+	}
+
+	@Nonnull
+	private CopyResult getResult() throws ExecutionException {
+		Throwable exc = failure;
+		if (exc instanceof CancellationException) {
+			throw (CancellationException) exc;
+		}
+		if (exc != null) {
+			throw new ExecutionException(exc);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "AsyncCopier(" + src + " -> " + dest + ", " + (isDone() ? "done" : "running") + ")";
+	}
+}
@@ -0,0 +1,187 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 token bucket 限制複製頻寬，可由多個同時進行的複製共用，上限可在執行中調整。Thread-safe。
+ *
+ * 自適應模式會監測每次寫入的延遲：超過目標延遲時把速率減半，否則逐步加回上限 (AIMD)，
+ * 讓背景複製在磁碟忙碌時自動讓路給前景 I/O。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyFile(java.nio.file.Path, java.nio.file.Path, CopyStrategy, BandwidthLimiter)
+ */
+public final class BandwidthLimiter {
+	/** 最多可累積 100 毫秒的額度。 */
+	private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	/** 自適應模式每 100 毫秒調整一次速率。 */
+	private static final long ADJUST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	private static final int MIN_CHUNK = 4 << 10;
+	private static final int MAX_CHUNK = 256 << 10;
+
+	private final boolean adaptive;
+	private final long minRate;
+	private final long targetLatencyNanos;
+
+	@GuardedBy("this")
+	private long maxRate;
+	@GuardedBy("this")
+	private double rate;
+	@GuardedBy("this")
+	private double tokens;
+	@GuardedBy("this")
+	private long lastRefill = System.nanoTime();
+	@GuardedBy("this")
+	private long windowStart = lastRefill;
+	@GuardedBy("this")
+	private long windowMaxLatency;
+
+	private BandwidthLimiter(long maxRate, long minRate, long targetLatencyNanos, boolean adaptive) {
+		if (minRate <= 0 || maxRate < minRate) {
+			throw new IllegalArgumentException("Rates must be positive and max must not be less than min.");
+		}
+		if (targetLatencyNanos <= 0) {
+			throw new IllegalArgumentException("Target latency must be positive.");
+		}
+		this.adaptive = adaptive;
+		this.minRate = minRate;
+		this.targetLatencyNanos = targetLatencyNanos;
+		this.maxRate = maxRate;
+		rate = maxRate;
+		tokens = burst();
+	}
+
+	/**
+	 * 固定速率。
+	 *
+	 * @param bytesPerSecond 每秒最多複製的 bytes
+	 * @return 頻寬限制器
+	 */
+	@Nonnull
+	public static BandwidthLimiter fixed(long bytesPerSecond) {
+		return new BandwidthLimiter(bytesPerSecond, bytesPerSecond, Long.MAX_VALUE, false);
+	}
+
+	/**
+	 * 依寫入延遲自動調整速率。
+	 *
+	 * @param maxBytesPerSecond 每秒最多複製的 bytes
+	 * @param minBytesPerSecond 減速時的下限
+	 * @param targetLatency 單次寫入的目標延遲
+	 * @param unit 時間單位
+	 * @return 頻寬限制器
+	 */
+	@Nonnull
+	public static BandwidthLimiter adaptive(long maxBytesPerSecond, long minBytesPerSecond,
+	                                        long targetLatency, @Nonnull TimeUnit unit) {
+		return new BandwidthLimiter(maxBytesPerSecond, minBytesPerSecond, unit.toNanos(targetLatency), true);
+	}
+
+	/**
+	 * 調整速率上限，立即生效。
+	 *
+	 * @param bytesPerSecond 每秒最多複製的 bytes，不可小於自適應模式的下限
+	 */
+	public synchronized void setMaxRate(long bytesPerSecond) {
+		if (bytesPerSecond <= 0 || (adaptive && bytesPerSecond < minRate)) {
+			throw new IllegalArgumentException("Rate must be positive and not less than min.");
+		}
+		refill(System.nanoTime());
+		maxRate = bytesPerSecond;
+		if (!adaptive || rate > maxRate) {
+			rate = maxRate;
+		}
+	}
+
+	/**
+	 * @return 速率上限
+	 */
+	public synchronized long getMaxRate() {
+		return maxRate;
+	}
+
+	/**
+	 * @return 目前速率，固定模式時與上限相同
+	 */
+	public synchronized long getRate() {
+		return (long) rate;
+	}
+
+	/**
+	 * @return 是否為自適應模式
+	 */
+	public boolean isAdaptive() {
+		return adaptive;
+	}
+
+	/**
+	 * 取得複製 bytes 的額度，額度不足時等待。
+	 * 允許預借額度，因此大於累積上限的要求也能取得，之後的呼叫者會等待較久。
+	 *
+	 * @param bytes 要複製的 bytes
+	 * @throws InterruptedException 等待時被中斷
+	 */
+	public void acquire(long bytes) throws InterruptedException {
+		long waitNanos;
+		synchronized (this) {
+			refill(System.nanoTime());
+			tokens -= bytes;
+			waitNanos = tokens < 0 ? (long) (-tokens * 1e9 / rate) : 0;
+		}
+		if (waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	/**
+	 * 回報一次寫入花費的時間，自適應模式依此調整速率。
+	 *
+	 * @param latencyNanos 寫入花費的時間 (奈秒)
+	 */
+	public void recordWrite(long latencyNanos) {
+		if (!adaptive) {
+			return;
+		}
+		synchronized (this) {
+			windowMaxLatency = Math.max(windowMaxLatency, latencyNanos);
+			long now = System.nanoTime();
+			if (now - windowStart < ADJUST_NANOS) {
+				return;
+			}
+			refill(now);
+			if (windowMaxLatency > targetLatencyNanos) {
+				rate = Math.max(minRate, rate / 2);
+			} else {
+				rate = Math.min(maxRate, rate + maxRate / 16.0);
+			}
+			tokens = Math.min(tokens, burst());
+			windowStart = now;
+			windowMaxLatency = 0;
+		}
+	}
+
+	/**
+	 * @return 每次取得額度的建議大小，約為目前速率 50 毫秒的量
+	 */
+	synchronized int chunkSize() {
+		return (int) Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, rate / 20));
+	}
+
+	@GuardedBy("this")
+	private void refill(long now) {
+		tokens = Math.min(burst(), tokens + (now - lastRefill) * rate / 1e9);
+		lastRefill = now;
+	}
+
+	@GuardedBy("this")
+	private double burst() {
+		return Math.max(MIN_CHUNK, rate * BURST_NANOS / 1e9);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BandwidthLimiter(" + (long) rate + "/" + maxRate + " B/s" + (adaptive ? ", adaptive)" : ")");
+	}
+}
@@ -0,0 +1,333 @@
+package org.newstudio.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 批次提交工作到 {@link ParallelExecutor}。Thread-safe。
+ *
+ * 每個提交工作的執行緒有自己的緩衝區，累積到 batchSize 個工作或超過 maxDelay 時，
+ * 整批以一個工作交給執行緒池，減少大量細小工作在佇列上的競爭。
+ * 同一批中的工作依提交順序在同一個執行緒上執行，其中一個丟出例外不影響其他工作。
+ *
+ * <pre>
+ * BatchingExecutor batching = executor.batching(64, 1, TimeUnit.MILLISECONDS);
+ * for (...) batching.execute(task);
+ * batching.await();
+ * </pre>
+ *
+ * @author Scribe Huang
+ * @see ParallelExecutor#batching(int, long, TimeUnit)
+ */
+public final class BatchingExecutor implements Executor {
+	private static final Logger LOG = LoggerFactory.getLogger(BatchingExecutor.class);
+	private static final AtomicInteger COUNTER = new AtomicInteger(1);
+
+	private final ParallelExecutor target;
+	private final int batchSize;
+	private final long maxDelayNanos;
+	private final ConcurrentLinkedQueue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<Buffer> local = new ThreadLocal<Buffer>() {
+		@Override
+		protected Buffer initialValue() {
+			Buffer buffer = new Buffer(Thread.currentThread());
+			buffers.add(buffer);
+			return buffer;
+		}
+	};
+	private final Thread flusher;
+	private volatile boolean shutdown;
+	/** 定時送出時被執行緒池拒絕的批次，下次 {@link #await()} 時回報。 */
+	private final AtomicReference<RejectedExecutionException> rejected = new AtomicReference<>();
+
+	private final StripedCounter completed = new StripedCounter();
+	private final Histogram batchSizes = new Histogram();
+	private volatile long statisticsStart = System.nanoTime();
+
+	BatchingExecutor(@Nonnull ParallelExecutor target, int batchSize, long maxDelay, @Nonnull TimeUnit unit) {
+		Objects.requireNonNull(target, "The target is null.");
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be positive.");
+		}
+		if (maxDelay <= 0) {
+			throw new IllegalArgumentException("Max delay must be positive.");
+		}
+		this.target = target;
+		this.batchSize = batchSize;
+		maxDelayNanos = unit.toNanos(maxDelay);
+		flusher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				flushPeriodically();
+			}
+		}, "BatchFlusher-" + COUNTER.getAndIncrement());
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/**
+	 * @return 每批的工作數上限
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @param unit 時間單位
+	 * @return 工作在緩衝區中最長的停留時間
+	 */
+	public long getMaxDelay(@Nonnull TimeUnit unit) {
+		return unit.convert(maxDelayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 放入目前執行緒的緩衝區，滿一批時由呼叫端交給執行緒池。
+	 *
+	 * @param task 工作
+	 * @throws RejectedExecutionException 已呼叫 {@link #shutdown()} 或執行緒池已關閉，或執行緒池拒絕這一批工作
+	 */
+	@Override
+	public void execute(@Nonnull Runnable task) {
+		Objects.requireNonNull(task, "The task is null.");
+		if (shutdown || target.isShutdown()) {
+			throw new RejectedExecutionException("The batching executor has been shut down.");
+		}
+		Buffer buffer = local.get();
+		Runnable[] full = null;
+		synchronized (buffer) {
+			buffer.tasks[buffer.count++] = task;
+			if (buffer.count == batchSize) {
+				full = buffer.tasks;
+				buffer.tasks = new Runnable[batchSize];
+				buffer.count = 0;
+			}
+		}
+		if (full != null) {
+			dispatch(full, batchSize);
+		}
+		// 放入緩衝區時可能已錯過 shutdown 最後一次送出，或定時送出已停止
+		if (shutdown || target.isShutdown()) {
+			flush(buffer);
+		}
+	}
+
+	/**
+	 * 把所有執行緒緩衝區中的工作立即交給執行緒池。
+	 * 執行緒池拒絕某一批時仍會送出其他批次，最後再丟出例外。
+	 *
+	 * @throws RejectedExecutionException 執行緒池拒絕其中的批次，其餘的拒絕附加為 suppressed
+	 */
+	public void flush() {
+		RejectedExecutionException failure = null;
+		for (Iterator<Buffer> it = buffers.iterator(); it.hasNext(); ) {
+			Buffer buffer = it.next();
+			try {
+				// 已結束的執行緒不會再提交工作
+				if (!flush(buffer) && !buffer.owner.isAlive()) {
+					it.remove();
+				}
+			} catch (RejectedExecutionException ex) {
+				if (failure == null) {
+					failure = ex;
+				} else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * @return 是否有工作送出
+	 */
+	private boolean flush(@Nonnull Buffer buffer) {
+		Runnable[] tasks;
+		int count;
+		synchronized (buffer) {
+			count = buffer.count;
+			if (count == 0) {
+				return false;
+			}
+			tasks = buffer.tasks;
+			buffer.tasks = new Runnable[batchSize];
+			buffer.count = 0;
+		}
+		dispatch(tasks, count);
+		return true;
+	}
+
+	/**
+	 * 送出緩衝區中的工作，並等到執行緒池中已提交的工作都結束。
+	 *
+	 * @throws InterruptedException 等待時被中斷
+	 * @throws ExecutionException 有工作丟出例外，或定時送出的批次被執行緒池拒絕
+	 * @throws RejectedExecutionException 執行緒池拒絕緩衝區中的工作
+	 * @see ParallelExecutor#await()
+	 */
+	public void await() throws InterruptedException, ExecutionException {
+		flush();
+		target.await();
+		RejectedExecutionException ex = rejected.getAndSet(null);
+		if (ex != null) {
+			throw new ExecutionException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * 不再接受新工作，停止定時送出並送出緩衝區中的工作。不會關閉執行緒池。
+	 */
+	public void shutdown() {
+		shutdown = true;
+		flusher.interrupt();
+		flush();
+	}
+
+	/**
+	 * @return 是否已不再接受新工作
+	 */
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * @return 自建立或上次 {@link #resetStatistics()} 以來執行完的工作數
+	 */
+	public long getCompletedCount() {
+		return completed.sum();
+	}
+
+	/**
+	 * @return 自建立或上次 {@link #resetStatistics()} 以來平均每秒執行完的工作數
+	 */
+	public double getTasksPerSecond() {
+		long elapsed = System.nanoTime() - statisticsStart;
+		return elapsed <= 0 ? 0 : completed.sum() * 1e9 / elapsed;
+	}
+
+	/**
+	 * 每批工作數的分佈，包含因滿一批及因逾時或 {@link #flush()} 送出的批次。
+	 *
+	 * @return 每批工作數的直方圖
+	 */
+	@Nonnull
+	public Histogram getBatchSizes() {
+		return batchSizes;
+	}
+
+	/**
+	 * 重新開始統計執行速率及每批工作數。
+	 */
+	public void resetStatistics() {
+		completed.reset();
+		batchSizes.reset();
+		statisticsStart = System.nanoTime();
+	}
+
+	private void dispatch(@Nonnull Runnable[] tasks, int count) {
+		batchSizes.record(count);
+		try {
+			target.execute(new Batch(tasks, count));
+		} catch (RejectedExecutionException ex) {
+			throw new RejectedExecutionException(count + " batched task(s) were rejected.", ex);
+		}
+	}
+
+	private void flushPeriodically() {
+		long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos));
+		int nanos = (int) (maxDelayNanos - TimeUnit.MILLISECONDS.toNanos(millis));
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Thread.sleep(millis, Math.max(0, nanos));
+				// 執行緒池關閉後 execute 會自行送出，這是最後一次
+				boolean last = target.isShutdown();
+				try {
+					flush();
+				} catch (RejectedExecutionException ex) {
+					LOG.error("Batched tasks were rejected by the executor.", ex);
+					for (RejectedExecutionException first; !rejected.compareAndSet(null, ex); ) {
+						if ((first = rejected.get()) != null) {
+							first.addSuppressed(ex);
+							break;
+						}
+					}
+				}
+				if (last) {
+					return;
+				}
+			}
+		} catch (InterruptedException ignored) {
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BatchingExecutor(" + batchSize + ", " + maxDelayNanos + " ns, " + getCompletedCount() + " completed)";
+	}
+
+	/**
+	 * 單一提交執行緒的緩衝區。
+	 */
+	private final class Buffer {
+		final Thread owner;
+		@GuardedBy("this")
+		Runnable[] tasks = new Runnable[batchSize];
+		@GuardedBy("this")
+		int count;
+
+		Buffer(@Nonnull Thread owner) {
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * 依序執行一批工作。全部執行後才丟出第一個例外，其餘的例外附加為 suppressed。
+	 */
+	private final class Batch implements Runnable {
+		private final Runnable[] tasks;
+		private final int count;
+
+		Batch(@Nonnull Runnable[] tasks, int count) {
+			this.tasks = tasks;
+			this.count = count;
+		}
+
+		@Override
+		public void run() {
+			Throwable failure = null;
+			for (int i = 0; i < count; i++) {
+				try {
+					tasks[i].run();
+				} catch (Throwable ex) {
+					if (failure == null) {
+						failure = ex;
+					} else {
+						failure.addSuppressed(ex);
+					}
+				}
+			}
+			completed.add(count);
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw new UndeclaredThrowableException(failure);
+			}
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+
+/**
+ * 計算 checksum 的檔案複製結果。Immutable。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyWithChecksum(java.nio.file.Path, java.nio.file.Path, ChecksumIndex, boolean)
+ */
+public final class ChecksumCopyResult {
+	/**
+	 * 目的檔的處理方式。
+	 */
+	public enum Action {
+		/** 複製內容。 */
+		COPIED,
+		/** 目的檔內容已相同，未寫入。 */
+		SKIPPED,
+		/** 建立指向相同內容檔案的 hard link。 */
+		LINKED
+	}
+
+	private final Action action;
+	private final long checksum;
+	private final long bytes;
+
+	ChecksumCopyResult(@Nonnull Action action, long checksum, long bytes) {
+		this.action = action;
+		this.checksum = checksum;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return 目的檔的處理方式
+	 */
+	@Nonnull
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return 內容的 CRC32
+	 */
+	public long getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * @return 實際寫入的 bytes，略過或建立連結時為 0
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return "ChecksumCopyResult(" + action + ", " + Long.toHexString(checksum) + ", " + bytes + " bytes)";
+	}
+}
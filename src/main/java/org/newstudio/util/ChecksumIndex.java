@@ -0,0 +1,224 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 檔案內容 CRC32 的索引，可存檔供下次使用。Thread-safe。
+ *
+ * 每筆記錄包含檔案大小及最後修改時間，兩者任一改變時記錄即失效。
+ * CRC32 只能偵測意外損壞，大小及 CRC32 相同的檔案內容仍可能不同，確認內容相同前須另外比對。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyWithChecksum(Path, Path, ChecksumIndex, boolean)
+ */
+public final class ChecksumIndex {
+	/** 表示沒有可用的記錄。 */
+	public static final long UNKNOWN = -1;
+
+	private final Path file;
+	@GuardedBy("this")
+	private final Map<Path, Entry> entries = new HashMap<>();
+	@GuardedBy("this")
+	private final Map<Long, Set<Path>> byChecksum = new HashMap<>();
+
+	private ChecksumIndex(@Nullable Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * 只存在記憶體中的索引。
+	 *
+	 * @return 空的索引
+	 */
+	@Nonnull
+	public static ChecksumIndex inMemory() {
+		return new ChecksumIndex(null);
+	}
+
+	/**
+	 * 讀取索引檔，檔案不存在時建立空的索引。
+	 *
+	 * @param file 索引檔位置，{@link #save()} 時寫回此檔
+	 * @return 索引
+	 * @throws IOException 讀取失敗或格式錯誤
+	 */
+	@Nonnull
+	public static ChecksumIndex open(@Nonnull Path file) throws IOException {
+		ChecksumIndex index = new ChecksumIndex(file);
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", 4);
+				if (fields.length != 4) {
+					throw new IOException("Malformed checksum index line: " + line);
+				}
+				try {
+					index.put(Paths.get(fields[3]), new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+							Long.parseLong(fields[0], 16)));
+				} catch (RuntimeException ex) {
+					throw new IOException("Malformed checksum index line: " + line, ex);
+				}
+			}
+		} catch (NoSuchFileException ignored) {
+		}
+		return index;
+	}
+
+	/**
+	 * 寫回索引檔。先寫入暫存檔再取代，寫到一半失敗不會破壞原本的索引。
+	 *
+	 * @throws IOException 寫入失敗
+	 */
+	public synchronized void save() throws IOException {
+		if (file == null) {
+			return;
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			for (Map.Entry<Path, Entry> e : entries.entrySet()) {
+				Entry entry = e.getValue();
+				writer.write(Long.toHexString(entry.checksum) + '\t' + entry.size + '\t' + entry.lastModified
+						+ '\t' + e.getKey());
+				writer.newLine();
+			}
+		}
+		try {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * @return 記錄筆數 (含已失效者)
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 查詢檔案的 CRC32。
+	 *
+	 * @param path 檔案位置
+	 * @return CRC32，沒有記錄、記錄已失效或檔案不存在時回傳 {@link #UNKNOWN}
+	 * @throws IOException 讀取檔案屬性失敗
+	 */
+	public long lookup(@Nonnull Path path) throws IOException {
+		BasicFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (NoSuchFileException ex) {
+			return UNKNOWN;
+		}
+		return lookup(path, attrs);
+	}
+
+	/**
+	 * 查詢檔案的 CRC32。
+	 *
+	 * @param path 檔案位置
+	 * @param attrs 檔案目前的屬性
+	 * @return CRC32，沒有記錄或記錄已失效時回傳 {@link #UNKNOWN}
+	 */
+	public synchronized long lookup(@Nonnull Path path, @Nonnull BasicFileAttributes attrs) {
+		Entry entry = entries.get(key(path));
+		return entry != null && entry.matches(attrs) ? entry.checksum : UNKNOWN;
+	}
+
+	/**
+	 * 記錄檔案目前的 CRC32。
+	 *
+	 * @param path 檔案位置
+	 * @param attrs 檔案目前的屬性
+	 * @param checksum CRC32
+	 */
+	public synchronized void record(@Nonnull Path path, @Nonnull BasicFileAttributes attrs, long checksum) {
+		put(key(path), new Entry(attrs.size(), attrs.lastModifiedTime().toMillis(), checksum));
+	}
+
+	/**
+	 * 找出已記錄且大小及 CRC32 相同的檔案，順便移除檢查時發現已失效的記錄。
+	 * CRC32 可能碰撞，使用前須比對內容。
+	 *
+	 * @param size 檔案大小
+	 * @param checksum CRC32
+	 * @param exclude 不列入的檔案
+	 * @return 大小及 CRC32 相同的檔案，沒有時回傳 null
+	 */
+	@Nullable
+	public synchronized Path findIdentical(long size, long checksum, @Nonnull Path exclude) {
+		Set<Path> candidates = byChecksum.get(checksum);
+		if (candidates == null) {
+			return null;
+		}
+		Path excluded = key(exclude);
+		for (Iterator<Path> it = candidates.iterator(); it.hasNext(); ) {
+			Path candidate = it.next();
+			if (candidate.equals(excluded) || entries.get(candidate).size != size) {
+				continue;
+			}
+			try {
+				if (entries.get(candidate).matches(Files.readAttributes(candidate, BasicFileAttributes.class))) {
+					return candidate;
+				}
+			} catch (IOException ignored) {
+			}
+			it.remove();
+			entries.remove(candidate);
+		}
+		return null;
+	}
+
+	@GuardedBy("this")
+	private void put(@Nonnull Path path, @Nonnull Entry entry) {
+		Entry old = entries.put(path, entry);
+		if (old != null && old.checksum != entry.checksum) {
+			byChecksum.get(old.checksum).remove(path);
+		}
+		Set<Path> paths = byChecksum.get(entry.checksum);
+		if (paths == null) {
+			paths = new LinkedHashSet<>();
+			byChecksum.put(entry.checksum, paths);
+		}
+		paths.add(path);
+	}
+
+	@Nonnull
+	private static Path key(@Nonnull Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+
+	private static final class Entry {
+		final long size;
+		final long lastModified;
+		final long checksum;
+
+		Entry(long size, long lastModified, long checksum) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.checksum = checksum;
+		}
+
+		boolean matches(@Nonnull BasicFileAttributes attrs) {
+			return attrs.size() == size && attrs.lastModifiedTime().toMillis() == lastModified;
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非同步複製的進度及完成通知。預設不做任何事，依需要覆寫方法。
+ * 通知在複製用的執行緒池中執行，不應阻塞；丟出的例外會使複製失敗。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyAsync(java.nio.file.Path, java.nio.file.Path, java.util.concurrent.ExecutorService, CopyListener)
+ */
+public abstract class CopyListener {
+	private final long intervalNanos;
+
+	/**
+	 * 每秒最多通知一次進度。
+	 */
+	protected CopyListener() {
+		this(1, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param interval 兩次進度通知之間的最短間隔
+	 * @param unit 時間單位
+	 */
+	protected CopyListener(long interval, @Nonnull TimeUnit unit) {
+		if (interval < 0) {
+			throw new IllegalArgumentException("Interval must not be negative.");
+		}
+		intervalNanos = unit.toNanos(interval);
+	}
+
+	/**
+	 * @return 兩次進度通知之間的最短間隔 (奈秒)
+	 */
+	final long getIntervalNanos() {
+		return intervalNanos;
+	}
+
+	/**
+	 * 進度通知。複製完成時一定會再通知一次 done == total 的進度。
+	 *
+	 * @param done 已複製的 bytes
+	 * @param total 檔案大小
+	 * @param bytesPerSecond 開始以來平均每秒複製的 bytes
+	 */
+	public void onProgress(long done, long total, double bytesPerSecond) {
+	}
+
+	/**
+	 * 完成通知，成功、失敗或取消時只會通知一次。
+	 *
+	 * @param result 成功時的結果，否則為 null
+	 * @param failure 失敗原因，取消時為 {@link java.util.concurrent.CancellationException}，成功時為 null
+	 */
+	public void onComplete(@Nullable CopyResult result, @Nullable Throwable failure) {
+	}
+}
@@ -0,0 +1,58 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 檔案複製結果。Immutable。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyFile(java.nio.file.Path, java.nio.file.Path, CopyStrategy)
+ */
+public final class CopyResult {
+	private final long bytes;
+	private final long elapsedNanos;
+	private final CopyStrategy strategy;
+
+	CopyResult(long bytes, long elapsedNanos, @Nonnull CopyStrategy strategy) {
+		this.bytes = bytes;
+		this.elapsedNanos = elapsedNanos;
+		this.strategy = strategy;
+	}
+
+	/**
+	 * @return 複製的 bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @param unit 時間單位
+	 * @return 花費時間
+	 */
+	public long getElapsed(@Nonnull TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return 實際使用的複製方式，不會是 {@link CopyStrategy#AUTO}
+	 */
+	@Nonnull
+	public CopyStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return 每秒複製的 bytes，花費時間為 0 時回傳 0
+	 */
+	public double bytesPerSecond() {
+		return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "CopyResult(" + bytes + " bytes, " + strategy + ", "
+				+ FileUtil.sizeByteToKilobyte((long) bytesPerSecond()) + " KB/s)";
+	}
+}
@@ -0,0 +1,212 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 檔案複製方式。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyFile(java.nio.file.Path, java.nio.file.Path, CopyStrategy)
+ */
+public enum CopyStrategy {
+	/**
+	 * 依檔案大小自動選擇：小檔使用 {@link #DIRECT_BUFFER}，其餘使用 {@link #TRANSFER}。
+	 */
+	AUTO {
+		@Override
+		long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count) throws IOException {
+			return resolve(count).transfer(in, out, position, count);
+		}
+	},
+
+	/**
+	 * {@link FileChannel#transferTo}，由作業系統直接在核心內複製 (Linux 為 sendfile)，資料不經過 Java heap。
+	 */
+	TRANSFER {
+		@Override
+		long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count) throws IOException {
+			long done = 0;
+			while (done < count) {
+				long n = in.transferTo(position + done, count - done, out.position(position + done));
+				if (n <= 0) {
+					// 來源在複製中被截短
+					break;
+				}
+				done += n;
+			}
+			return done;
+		}
+	},
+
+	/**
+	 * 以固定大小的視窗 memory-map 來源檔，再寫入目的檔。
+	 * 對應的記憶體要等到 GC 才會釋放，適合單次的大檔案複製。
+	 */
+	MAPPED {
+		@Override
+		long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count) throws IOException {
+			long done = 0;
+			long end = Math.min(position + count, in.size());
+			while (position + done < end) {
+				long size = Math.min(MAP_WINDOW, end - position - done);
+				MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position + done, size);
+				long at = position + done;
+				while (window.hasRemaining()) {
+					at += out.write(window, at);
+				}
+				done += size;
+			}
+			return done;
+		}
+	},
+
+	/**
+	 * 經由 direct buffer 讀寫，適合小檔案及不支援 transferTo 的檔案系統。
+	 * Buffer 從最多每個 CPU 一個的共用 pool 取得，不夠用時才配置不超過檔案大小的暫時 buffer，
+	 * 大量執行緒 (例如 virtual thread) 同時複製時不會各自保留一份 buffer。
+	 */
+	DIRECT_BUFFER {
+		@Override
+		long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count) throws IOException {
+			ByteBuffer buffer = acquireBuffer(count);
+			try {
+				return copy(in, out, position, count, buffer);
+			} finally {
+				releaseBuffer(buffer);
+			}
+		}
+
+		private long copy(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count,
+		                  @Nonnull ByteBuffer buffer) throws IOException {
+			long done = 0;
+			while (done < count) {
+				buffer.clear();
+				if (count - done < buffer.capacity()) {
+					buffer.limit((int) (count - done));
+				}
+				int n = in.read(buffer, position + done);
+				if (n < 0) {
+					break;
+				}
+				buffer.flip();
+				long at = position + done;
+				while (buffer.hasRemaining()) {
+					at += out.write(buffer, at);
+				}
+				done += n;
+			}
+			return done;
+		}
+	};
+
+	/** 小於此大小的檔案由 {@link #AUTO} 選擇 {@link #DIRECT_BUFFER}。 */
+	static final long SMALL_FILE = 1 << 20;
+	/** {@link #MAPPED} 每次 map 的大小。 */
+	static final long MAP_WINDOW = 64L << 20;
+	/** {@link #DIRECT_BUFFER} 的 buffer 大小。 */
+	static final int BUFFER_SIZE = 1 << 20;
+
+	/** 保留的 {@link #DIRECT_BUFFER} buffer 數上限，每個 CPU 一個。 */
+	private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+	private static final BlockingQueue<ByteBuffer> BUFFER_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+	/** 已配置的完整大小 buffer 數，不超過 {@link #POOL_SIZE}。 */
+	private static final AtomicInteger POOLED = new AtomicInteger();
+
+	/**
+	 * 把來源從 position 開始的 count bytes 複製到目的檔的相同位置。
+	 *
+	 * @param in 來源
+	 * @param out 目的
+	 * @param position 起始位置
+	 * @param count 要複製的 bytes
+	 * @return 實際複製的 bytes，來源比預期短時會小於 count
+	 * @throws IOException 讀寫失敗
+	 */
+	abstract long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count)
+			throws IOException;
+
+	/**
+	 * 與 {@link #transfer(FileChannel, FileChannel, long, long)} 相同，但分段向頻寬限制器取得額度後才複製，
+	 * 並回報每段的寫入時間。
+	 *
+	 * @param in 來源
+	 * @param out 目的
+	 * @param position 起始位置
+	 * @param count 要複製的 bytes
+	 * @param limiter 頻寬限制器，null 表示不限制
+	 * @return 實際複製的 bytes，來源比預期短時會小於 count
+	 * @throws IOException 讀寫失敗，或等待額度時被中斷 ({@link InterruptedIOException})
+	 */
+	final long transfer(@Nonnull FileChannel in, @Nonnull FileChannel out, long position, long count,
+	                    @Nullable BandwidthLimiter limiter) throws IOException {
+		if (limiter == null) {
+			return transfer(in, out, position, count);
+		}
+		long done = 0;
+		while (done < count) {
+			long chunk = Math.min(limiter.chunkSize(), count - done);
+			try {
+				limiter.acquire(chunk);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for bandwidth.");
+			}
+			long start = System.nanoTime();
+			long n = transfer(in, out, position + done, chunk);
+			limiter.recordWrite(System.nanoTime() - start);
+			done += n;
+			if (n < chunk) {
+				break;
+			}
+		}
+		return done;
+	}
+
+	/**
+	 * @param count 要複製的 bytes
+	 * @return pool 中的 buffer；pool 為空且已配置的 buffer 達上限時，新配置大小不超過 count 的暫時 buffer
+	 */
+	@Nonnull
+	static ByteBuffer acquireBuffer(long count) {
+		ByteBuffer buffer = BUFFER_POOL.poll();
+		if (buffer != null) {
+			return buffer;
+		}
+		for (int pooled; (pooled = POOLED.get()) < POOL_SIZE; ) {
+			if (POOLED.compareAndSet(pooled, pooled + 1)) {
+				return ByteBuffer.allocateDirect(BUFFER_SIZE);
+			}
+		}
+		return ByteBuffer.allocateDirect((int) Math.max(1, Math.min(count, BUFFER_SIZE)));
+	}
+
+	/**
+	 * 完整大小的 buffer 放回 pool，暫時 buffer 交給 GC 回收。
+	 */
+	static void releaseBuffer(@Nonnull ByteBuffer buffer) {
+		if (buffer.capacity() == BUFFER_SIZE && !BUFFER_POOL.offer(buffer)) {
+			POOLED.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @param size 檔案大小
+	 * @return 實際使用的複製方式，{@link #AUTO} 會依大小決定
+	 */
+	@Nonnull
+	CopyStrategy resolve(long size) {
+		if (this != AUTO) {
+			return this;
+		}
+		return size < SMALL_FILE ? DIRECT_BUFFER : TRANSFER;
+	}
+}
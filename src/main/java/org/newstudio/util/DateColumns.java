@@ -0,0 +1,377 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static org.newstudio.util.DateUtil.Millis.addDays;
+import static org.newstudio.util.DateUtil.Millis.civilFromDays;
+import static org.newstudio.util.DateUtil.Millis.dayOf;
+import static org.newstudio.util.DateUtil.Millis.dayOfWeek;
+import static org.newstudio.util.DateUtil.Millis.daysFromCivil;
+import static org.newstudio.util.DateUtil.Millis.floorDiv;
+import static org.newstudio.util.DateUtil.Millis.floorMod;
+import static org.newstudio.util.DateUtil.Millis.lengthOfMonth;
+import static org.newstudio.util.DateUtil.Millis.monthOf;
+import static org.newstudio.util.DateUtil.Millis.yearOf;
+
+/**
+ * 以 epoch 毫秒陣列為單位的批次日期運算，結果與 {@link DateUtil.Millis} 逐筆運算相同。
+ *
+ * 時間依序落在同一個固定偏移量區間 (兩個日光節約時間轉換點之間) 時，只需整數運算；
+ * 因此排序過的資料最快。提供 ForkJoinPool 且陣列長度達 {@link #PARALLEL_THRESHOLD} 時會分割平行處理。
+ * 輸出陣列可與輸入陣列相同。
+ *
+ * @author Scribe Huang
+ */
+public final class DateColumns {
+	/** 提供 ForkJoinPool 時，陣列長度達此值才分割平行處理，分割後每段也不小於此值的一半。 */
+	public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+	private static final long MILLISECONDS_PER_DAY = 86400000;
+
+	/**
+	 * Util 類別不允許直接初始化。
+	 */
+	private DateColumns() {
+		throw new UnsupportedOperationException("DateColumns class cannot be initiated directly.");
+	}
+
+	/**
+	 * 取得每個時間點的該日開頭。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @see DateUtil.Millis#startOfDay(long, TimeZone)
+	 */
+	public static void truncateToDay(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone) {
+		truncateToDay(in, out, zone, null);
+	}
+
+	/**
+	 * 取得每個時間點的該日開頭。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil.Millis#startOfDay(long, TimeZone)
+	 */
+	public static void truncateToDay(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone,
+	                                 @Nullable ForkJoinPool pool) {
+		run(new Truncate(ZoneOffsetTable.of(zone), Truncate.DAY), in, null, out, pool);
+	}
+
+	/**
+	 * 取得每個時間點的該週第一天 (週日)。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @see DateUtil.Millis#startOfWeek(long, TimeZone)
+	 */
+	public static void truncateToWeek(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone) {
+		truncateToWeek(in, out, zone, null);
+	}
+
+	/**
+	 * 取得每個時間點的該週第一天 (週日)。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil.Millis#startOfWeek(long, TimeZone)
+	 */
+	public static void truncateToWeek(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone,
+	                                  @Nullable ForkJoinPool pool) {
+		run(new Truncate(ZoneOffsetTable.of(zone), Truncate.WEEK), in, null, out, pool);
+	}
+
+	/**
+	 * 取得每個時間點的該月第一天。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @see DateUtil.Millis#startOfMonth(long, TimeZone)
+	 */
+	public static void truncateToMonth(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone) {
+		truncateToMonth(in, out, zone, null);
+	}
+
+	/**
+	 * 取得每個時間點的該月第一天。
+	 *
+	 * @param in 時間點
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil.Millis#startOfMonth(long, TimeZone)
+	 */
+	public static void truncateToMonth(@Nonnull long[] in, @Nonnull long[] out, @Nonnull TimeZone zone,
+	                                   @Nullable ForkJoinPool pool) {
+		run(new Truncate(ZoneOffsetTable.of(zone), Truncate.MONTH), in, null, out, pool);
+	}
+
+	/**
+	 * 每個時間點增加天數。
+	 *
+	 * @param in 時間點
+	 * @param day 天
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @see DateUtil.Millis#incDay(long, int, TimeZone)
+	 */
+	public static void incDay(@Nonnull long[] in, int day, @Nonnull long[] out, @Nonnull TimeZone zone) {
+		incDay(in, day, out, zone, null);
+	}
+
+	/**
+	 * 每個時間點增加天數。
+	 *
+	 * @param in 時間點
+	 * @param day 天
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil.Millis#incDay(long, int, TimeZone)
+	 */
+	public static void incDay(@Nonnull long[] in, int day, @Nonnull long[] out, @Nonnull TimeZone zone,
+	                          @Nullable ForkJoinPool pool) {
+		run(new IncDay(ZoneOffsetTable.of(zone), day), in, null, out, pool);
+	}
+
+	/**
+	 * 每個時間點增加月數。
+	 *
+	 * @param in 時間點
+	 * @param month 月
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @see DateUtil.Millis#incMonth(long, int, TimeZone)
+	 */
+	public static void incMonth(@Nonnull long[] in, int month, @Nonnull long[] out, @Nonnull TimeZone zone) {
+		incMonth(in, month, out, zone, null);
+	}
+
+	/**
+	 * 每個時間點增加月數。
+	 *
+	 * @param in 時間點
+	 * @param month 月
+	 * @param out 結果，長度至少與 in 相同
+	 * @param zone 時區
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil.Millis#incMonth(long, int, TimeZone)
+	 */
+	public static void incMonth(@Nonnull long[] in, int month, @Nonnull long[] out, @Nonnull TimeZone zone,
+	                            @Nullable ForkJoinPool pool) {
+		run(new IncMonth(ZoneOffsetTable.of(zone), month), in, null, out, pool);
+	}
+
+	/**
+	 * 計算兩組時間點逐筆相差的天數。
+	 *
+	 * @param a 時間 A
+	 * @param b 時間 B，長度至少與 a 相同
+	 * @param out 相差天數 (永遠為正值)，長度至少與 a 相同
+	 * @see DateUtil#daysBetween(java.util.Date, java.util.Date)
+	 */
+	public static void daysBetween(@Nonnull long[] a, @Nonnull long[] b, @Nonnull long[] out) {
+		daysBetween(a, b, out, null);
+	}
+
+	/**
+	 * 計算兩組時間點逐筆相差的天數。
+	 *
+	 * @param a 時間 A
+	 * @param b 時間 B，長度至少與 a 相同
+	 * @param out 相差天數 (永遠為正值)，長度至少與 a 相同
+	 * @param pool 平行處理用的執行緒池，null 表示不平行處理
+	 * @see DateUtil#daysBetween(java.util.Date, java.util.Date)
+	 */
+	public static void daysBetween(@Nonnull long[] a, @Nonnull long[] b, @Nonnull long[] out,
+	                               @Nullable ForkJoinPool pool) {
+		if (b.length < a.length) {
+			throw new IllegalArgumentException("The second column is shorter than the first.");
+		}
+		run(DAYS_BETWEEN, a, b, out, pool);
+	}
+
+	private static void run(@Nonnull Operation op, @Nonnull long[] in, @Nullable long[] in2,
+	                        @Nonnull long[] out, @Nullable ForkJoinPool pool) {
+		if (out.length < in.length) {
+			throw new IllegalArgumentException("The output column is shorter than the input.");
+		}
+		if (pool != null && in.length >= PARALLEL_THRESHOLD) {
+			pool.invoke(new ColumnTask(op, in, in2, out, 0, in.length));
+		} else {
+			op.apply(in, in2, out, 0, in.length);
+		}
+	}
+
+	/**
+	 * 陣列區段運算。實作不可保存狀態，以便平行處理。
+	 */
+	private abstract static class Operation {
+		abstract void apply(long[] in, long[] in2, long[] out, int from, int to);
+	}
+
+	private static final Operation DAYS_BETWEEN = new Operation() {
+		@Override
+		void apply(long[] a, long[] b, long[] out, int from, int to) {
+			for (int i = from; i < to; i++) {
+				out[i] = Math.abs(a[i] - b[i]) / MILLISECONDS_PER_DAY;
+			}
+		}
+	};
+
+	private static final class Truncate extends Operation {
+		static final int DAY = 0;
+		static final int WEEK = 1;
+		static final int MONTH = 2;
+
+		private final ZoneOffsetTable table;
+		private final int unit;
+
+		Truncate(ZoneOffsetTable table, int unit) {
+			this.table = table;
+			this.unit = unit;
+		}
+
+		@Override
+		void apply(long[] in, long[] unused, long[] out, int from, int to) {
+			ZoneOffsetTable.Cursor cursor = new ZoneOffsetTable.Cursor(table);
+			// 目前所在月份的本地範圍
+			long monthStart = 1;
+			long monthEnd = 0;
+			for (int i = from; i < to; i++) {
+				int offset = cursor.offsetAt(in[i]);
+				long days = floorDiv(in[i] + offset, MILLISECONDS_PER_DAY);
+				if (unit == WEEK) {
+					days -= floorMod(dayOfWeek(days) - Calendar.SUNDAY, 7);
+				} else if (unit == MONTH) {
+					if (days < monthStart || days >= monthEnd) {
+						long ymd = civilFromDays(days);
+						monthStart = days - dayOf(ymd) + 1;
+						monthEnd = monthStart + lengthOfMonth(yearOf(ymd), monthOf(ymd));
+					}
+					days = monthStart;
+				}
+				long local = days * MILLISECONDS_PER_DAY;
+				long result = local - offset;
+				out[i] = cursor.isSafe(result) ? result : table.toUtc(local);
+			}
+		}
+	}
+
+	private static final class IncDay extends Operation {
+		private final ZoneOffsetTable table;
+		private final long delta;
+
+		IncDay(ZoneOffsetTable table, int day) {
+			this.table = table;
+			this.delta = day * MILLISECONDS_PER_DAY;
+		}
+
+		@Override
+		void apply(long[] in, long[] unused, long[] out, int from, int to) {
+			ZoneOffsetTable.Cursor source = new ZoneOffsetTable.Cursor(table);
+			ZoneOffsetTable.Cursor target = new ZoneOffsetTable.Cursor(table);
+			for (int i = from; i < to; i++) {
+				int offset = source.offsetAt(in[i]);
+				long result = in[i] + delta;
+				if (target.offsetAt(result) != offset) {
+					// 跨越日光節約時間轉換點
+					result = addDays(in[i], delta / MILLISECONDS_PER_DAY, table);
+				}
+				out[i] = result;
+			}
+		}
+	}
+
+	private static final class IncMonth extends Operation {
+		private final ZoneOffsetTable table;
+		private final int month;
+
+		IncMonth(ZoneOffsetTable table, int month) {
+			this.table = table;
+			this.month = month;
+		}
+
+		@Override
+		void apply(long[] in, long[] unused, long[] out, int from, int to) {
+			if (month == 0) {
+				// 與 DateUtil.Millis#incMonth 相同，不增減時原樣傳回，不重新解析重複的本地時間
+				System.arraycopy(in, from, out, from, to - from);
+				return;
+			}
+			ZoneOffsetTable.Cursor source = new ZoneOffsetTable.Cursor(table);
+			ZoneOffsetTable.Cursor target = new ZoneOffsetTable.Cursor(table);
+			// 目前所在月份的本地範圍，及其對應的目標月份
+			long monthStart = 1;
+			long monthEnd = 0;
+			long targetStart = 0;
+			int targetLength = 0;
+			for (int i = from; i < to; i++) {
+				int offset = source.offsetAt(in[i]);
+				long local = in[i] + offset;
+				long days = floorDiv(local, MILLISECONDS_PER_DAY);
+				if (days < monthStart || days >= monthEnd) {
+					long ymd = civilFromDays(days);
+					monthStart = days - dayOf(ymd) + 1;
+					monthEnd = monthStart + lengthOfMonth(yearOf(ymd), monthOf(ymd));
+
+					long months = yearOf(ymd) * 12 + monthOf(ymd) - 1 + month;
+					long targetYear = floorDiv(months, 12);
+					int targetMonth = (int) (months - targetYear * 12) + 1;
+					targetStart = daysFromCivil(targetYear, targetMonth, 1);
+					targetLength = lengthOfMonth(targetYear, targetMonth);
+				}
+				long targetDays = targetStart + Math.min(days - monthStart, targetLength - 1);
+				long targetLocal = local + (targetDays - days) * MILLISECONDS_PER_DAY;
+				long result = targetLocal - target.offsetAt(targetLocal - offset);
+				// 遠離轉換點時本地時間唯一；否則與 DateUtil.Millis#incMonth 同樣交由 toUtc 決定
+				out[i] = target.isSafe(result) ? result : table.toUtc(targetLocal);
+			}
+		}
+	}
+
+	private static final class ColumnTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Operation op;
+		private final long[] in;
+		private final long[] in2;
+		private final long[] out;
+		private final int from;
+		private final int to;
+
+		ColumnTask(Operation op, long[] in, long[] in2, long[] out, int from, int to) {
+			this.op = op;
+			this.in = in;
+			this.in2 = in2;
+			this.out = out;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from < PARALLEL_THRESHOLD) {
+				op.apply(in, in2, out, from, to);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(
+					new ColumnTask(op, in, in2, out, from, mid),
+					new ColumnTask(op, in, in2, out, mid, to)
+				);
+			}
+		}
+	}
+}
@@ -0,0 +1,389 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.newstudio.util.DateUtil.Millis.civilFromDays;
+import static org.newstudio.util.DateUtil.Millis.dayOf;
+import static org.newstudio.util.DateUtil.Millis.daysFromCivil;
+import static org.newstudio.util.DateUtil.Millis.floorDiv;
+import static org.newstudio.util.DateUtil.Millis.lengthOfMonth;
+import static org.newstudio.util.DateUtil.Millis.monthOf;
+import static org.newstudio.util.DateUtil.Millis.yearOf;
+
+/**
+ * 預先編譯的固定寬度日期格式器。不可變且 Thread-safe，可取代每次建立 SimpleDateFormat。
+ *
+ * 支援的欄位為 yyyy, MM, dd, HH, mm, ss, SSS，其餘字元原樣輸出，單引號內的文字視為字面值。
+ * 年份僅支援 0000 至 9999，日期採用前推格里曆 (proleptic Gregorian)。
+ * 輸出可直接寫入呼叫端提供的 StringBuilder、char[] 或 ByteBuffer，不建立任何物件。
+ *
+ * @author Scribe Huang
+ */
+public final class DateFormatter {
+	private static final int YEAR = 0;
+	private static final int MONTH = 1;
+	private static final int DAY = 2;
+	private static final int HOUR = 3;
+	private static final int MINUTE = 4;
+	private static final int SECOND = 5;
+	private static final int MILLISECOND = 6;
+	private static final String LETTERS = "yMdHmsS";
+	private static final int[] WIDTHS = {4, 2, 2, 2, 2, 2, 3};
+
+	private static final long MILLISECONDS_PER_DAY = 86400000;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final String pattern;
+	@Nullable
+	private final TimeZone zone;
+	private final char[] template;
+	private final byte[] byteTemplate;
+	private final int[] fields;
+	private final int[] charPositions;
+	private final int[] bytePositions;
+
+	/**
+	 * 快取最近一次格式化的日期，避免重複換算年月日。
+	 * 高 32 位元為本地日數，低 23 位元為年月日。
+	 */
+	private volatile long cachedDay = Long.MIN_VALUE;
+
+	private DateFormatter(@Nonnull String pattern, @Nullable TimeZone zone) {
+		this.pattern = pattern;
+		this.zone = zone == null ? null : (TimeZone) zone.clone();
+
+		StringBuilder text = new StringBuilder();
+		int[] fieldList = new int[pattern.length()];
+		int[] positionList = new int[pattern.length()];
+		int count = 0;
+		int i = 0;
+		while (i < pattern.length()) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				i = appendQuoted(pattern, i + 1, text);
+			} else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+				int field = LETTERS.indexOf(c);
+				int end = i;
+				while (end < pattern.length() && pattern.charAt(end) == c) {
+					end++;
+				}
+				if (field < 0 || end - i != WIDTHS[field]) {
+					throw new IllegalArgumentException(
+						"Unsupported pattern field '" + pattern.substring(i, end) + "' in: " + pattern
+					);
+				}
+				fieldList[count] = field;
+				positionList[count++] = text.length();
+				for (; i < end; i++) {
+					text.append('0');
+				}
+			} else {
+				text.append(c);
+				i++;
+			}
+		}
+
+		template = text.toString().toCharArray();
+		byteTemplate = text.toString().getBytes(UTF_8);
+		fields = Arrays.copyOf(fieldList, count);
+		charPositions = Arrays.copyOf(positionList, count);
+		bytePositions = new int[count];
+		for (int f = 0; f < count; f++) {
+			bytePositions[f] = text.substring(0, charPositions[f]).getBytes(UTF_8).length;
+		}
+	}
+
+	/**
+	 * 建立使用預設時區的格式器。預設時區於每次格式化時取得。
+	 *
+	 * @param pattern 格式，例如 yyyy-MM-dd HH:mm:ss
+	 * @return 格式器
+	 */
+	@Nonnull
+	public static DateFormatter of(@Nonnull String pattern) {
+		return new DateFormatter(pattern, null);
+	}
+
+	/**
+	 * 建立指定時區的格式器。
+	 *
+	 * @param pattern 格式，例如 yyyy-MM-dd HH:mm:ss
+	 * @param zone 時區
+	 * @return 格式器
+	 */
+	@Nonnull
+	public static DateFormatter of(@Nonnull String pattern, @Nonnull TimeZone zone) {
+		return new DateFormatter(pattern, zone);
+	}
+
+	/**
+	 * @return 格式
+	 */
+	@Nonnull
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * @return 輸出的字元數 (固定)
+	 */
+	public int length() {
+		return template.length;
+	}
+
+	/**
+	 * 格式化成字串。
+	 *
+	 * @param date Date 物件
+	 * @return 格式化後字串
+	 */
+	@Nonnull
+	public String format(@Nonnull Date date) {
+		return format(date.getTime());
+	}
+
+	/**
+	 * 格式化成字串。
+	 *
+	 * @param epochMillis 時間點
+	 * @return 格式化後字串
+	 */
+	@Nonnull
+	public String format(long epochMillis) {
+		char[] buf = new char[template.length];
+		format(epochMillis, buf, 0);
+		return new String(buf);
+	}
+
+	/**
+	 * 格式化並附加到 StringBuilder 之後。
+	 *
+	 * @param epochMillis 時間點
+	 * @param dest 目的
+	 * @return dest
+	 */
+	@Nonnull
+	public StringBuilder format(long epochMillis, @Nonnull StringBuilder dest) {
+		long local = toLocal(epochMillis);
+		long ymd = dateFields(local);
+		int start = dest.length();
+		dest.append(template);
+		for (int f = 0; f < fields.length; f++) {
+			int value = fieldValue(fields[f], local, ymd);
+			for (int p = start + charPositions[f] + WIDTHS[fields[f]] - 1; p >= start + charPositions[f]; p--) {
+				dest.setCharAt(p, (char) ('0' + value % 10));
+				value /= 10;
+			}
+		}
+		return dest;
+	}
+
+	/**
+	 * 格式化並寫入 char 陣列。
+	 *
+	 * @param epochMillis 時間點
+	 * @param dest 目的陣列，長度至少為 offset + {@link #length()}
+	 * @param offset 寫入位置
+	 * @return 寫入結束的位置
+	 */
+	public int format(long epochMillis, @Nonnull char[] dest, int offset) {
+		long local = toLocal(epochMillis);
+		long ymd = dateFields(local);
+		System.arraycopy(template, 0, dest, offset, template.length);
+		for (int f = 0; f < fields.length; f++) {
+			int value = fieldValue(fields[f], local, ymd);
+			for (int p = offset + charPositions[f] + WIDTHS[fields[f]] - 1; p >= offset + charPositions[f]; p--) {
+				dest[p] = (char) ('0' + value % 10);
+				value /= 10;
+			}
+		}
+		return offset + template.length;
+	}
+
+	/**
+	 * 格式化並以 UTF-8 寫入 ByteBuffer 目前位置。
+	 *
+	 * @param epochMillis 時間點
+	 * @param dest 目的
+	 * @return dest
+	 */
+	@Nonnull
+	public ByteBuffer format(long epochMillis, @Nonnull ByteBuffer dest) {
+		long local = toLocal(epochMillis);
+		long ymd = dateFields(local);
+		int start = dest.position();
+		dest.put(byteTemplate);
+		for (int f = 0; f < fields.length; f++) {
+			int value = fieldValue(fields[f], local, ymd);
+			for (int p = start + bytePositions[f] + WIDTHS[fields[f]] - 1; p >= start + bytePositions[f]; p--) {
+				dest.put(p, (byte) ('0' + value % 10));
+				value /= 10;
+			}
+		}
+		return dest;
+	}
+
+	/**
+	 * 解析字串。未出現在格式中的欄位，日期預設為 1970-01-01，時間預設為 0。
+	 *
+	 * @param text 字串
+	 * @return 時間點
+	 * @throws IllegalArgumentException 字串不符合格式
+	 */
+	public long parse(@Nonnull CharSequence text) {
+		if (text.length() != template.length) {
+			throw new IllegalArgumentException("Text does not match pattern " + pattern + ": " + text);
+		}
+		return parse(text, 0);
+	}
+
+	/**
+	 * 從指定位置解析 {@link #length()} 個字元。
+	 *
+	 * @param text 字串
+	 * @param offset 起始位置
+	 * @return 時間點
+	 * @throws IllegalArgumentException 字串不符合格式
+	 */
+	public long parse(@Nonnull CharSequence text, int offset) {
+		if (offset < 0 || text.length() - offset < template.length) {
+			throw new IllegalArgumentException("Text does not match pattern " + pattern + ": " + text);
+		}
+		int year = 1970;
+		int month = 1;
+		int day = 1;
+		long millisOfDay = 0;
+		int f = 0;
+		for (int p = 0; p < template.length; ) {
+			if (f < fields.length && p == charPositions[f]) {
+				int value = 0;
+				for (int end = p + WIDTHS[fields[f]]; p < end; p++) {
+					char c = text.charAt(offset + p);
+					if (c < '0' || c > '9') {
+						throw new IllegalArgumentException("Text does not match pattern " + pattern + ": " + text);
+					}
+					value = value * 10 + (c - '0');
+				}
+				switch (fields[f++]) {
+					case YEAR:
+						year = value;
+						break;
+					case MONTH:
+						month = value;
+						break;
+					case DAY:
+						day = value;
+						break;
+					case HOUR:
+						millisOfDay += checkRange(value, 23, text) * 3600000L;
+						break;
+					case MINUTE:
+						millisOfDay += checkRange(value, 59, text) * 60000L;
+						break;
+					case SECOND:
+						millisOfDay += checkRange(value, 59, text) * 1000L;
+						break;
+					default:
+						millisOfDay += value;
+				}
+			} else if (text.charAt(offset + p) == template[p]) {
+				p++;
+			} else {
+				throw new IllegalArgumentException("Text does not match pattern " + pattern + ": " + text);
+			}
+		}
+
+		checkRange(month - 1, 11, text);
+		checkRange(day - 1, lengthOfMonth(year, month) - 1, text);
+		long local = daysFromCivil(year, month, day) * MILLISECONDS_PER_DAY + millisOfDay;
+		return offsetTable().toUtc(local);
+	}
+
+	@Override
+	public String toString() {
+		return "DateFormatter(" + pattern + ")";
+	}
+
+	private static int checkRange(int value, int max, CharSequence text) {
+		if (value < 0 || value > max) {
+			throw new IllegalArgumentException("Field out of range: " + text);
+		}
+		return value;
+	}
+
+	private static int appendQuoted(String pattern, int i, StringBuilder text) {
+		if (i < pattern.length() && pattern.charAt(i) == '\'') {
+			// '' 表示單引號
+			text.append('\'');
+			return i + 1;
+		}
+		while (i < pattern.length()) {
+			char c = pattern.charAt(i++);
+			if (c != '\'') {
+				text.append(c);
+			} else if (i < pattern.length() && pattern.charAt(i) == '\'') {
+				text.append('\'');
+				i++;
+			} else {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unterminated quote in pattern: " + pattern);
+	}
+
+	@Nonnull
+	private ZoneOffsetTable offsetTable() {
+		return ZoneOffsetTable.of(zone == null ? TimeZone.getDefault() : zone);
+	}
+
+	private long toLocal(long epochMillis) {
+		return epochMillis + offsetTable().offsetAt(epochMillis);
+	}
+
+	/**
+	 * @return 本地日期的年月日，格式同 {@link DateUtil.Millis#civilFromDays}
+	 */
+	private long dateFields(long local) {
+		long days = floorDiv(local, MILLISECONDS_PER_DAY);
+		long cached = cachedDay;
+		if (cached >> 32 == days) {
+			return cached & 0x7FFFFF;
+		}
+		long ymd = civilFromDays(days);
+		long year = yearOf(ymd);
+		if (year < 0 || year > 9999) {
+			throw new IllegalArgumentException("Year out of range 0000-9999: " + year);
+		}
+		cachedDay = (days << 32) | ymd;
+		return ymd;
+	}
+
+	private static int fieldValue(int field, long local, long ymd) {
+		switch (field) {
+			case YEAR:
+				return (int) yearOf(ymd);
+			case MONTH:
+				return monthOf(ymd);
+			case DAY:
+				return dayOf(ymd);
+			default:
+				int millisOfDay = (int) (local - floorDiv(local, MILLISECONDS_PER_DAY) * MILLISECONDS_PER_DAY);
+				switch (field) {
+					case HOUR:
+						return millisOfDay / 3600000;
+					case MINUTE:
+						return millisOfDay / 60000 % 60;
+					case SECOND:
+						return millisOfDay / 1000 % 60;
+					default:
+						return millisOfDay % 1000;
+				}
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package org.newstudio.util;
 
+import javax.annotation.Nonnull;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Objects;
 import java.util.TimeZone;
 
 public final class DateUtil {
@@ -15,6 +17,16 @@ public final class DateUtil {
 	public static final int EQUAL = 0;
 	public static final int AFTER = 1;
 
+	private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+	private static final DateFormatter DATE_TIME_FORMATTER = DateFormatter.of(DATE_TIME_PATTERN);
+	/**
+	 * DateFormatter 與 SimpleDateFormat 輸出相同的範圍：格里曆啟用 (1582-10-15) 起至 9999 年底，
+	 * 兩端各留一天給時區偏移量。
+	 */
+	private static final long FORMATTER_START = -12219292800000L + MILLISECONDS_PER_DAY;
+	private static final long FORMATTER_END = 253402300800000L - MILLISECONDS_PER_DAY;
+	private static volatile MillisClock clock = MillisClock.system();
+
 	/**
 	 * Util 類別不允許直接初始化。
 	 */
@@ -22,6 +34,23 @@ public final class DateUtil {
 		throw new UnsupportedOperationException("DateUtil class cannot be initiated directly.");
 	}
 
+	/**
+	 * 設定取得目前時間的時鐘，影響所有取得目前時間的方法。預設為 {@link MillisClock#system()}。
+	 *
+	 * @param newClock 時鐘
+	 */
+	public static void setClock(@Nonnull MillisClock newClock) {
+		clock = Objects.requireNonNull(newClock, "The clock is null.");
+	}
+
+	/**
+	 * @return 目前使用的時鐘
+	 */
+	@Nonnull
+	public static MillisClock getClock() {
+		return clock;
+	}
+
 	/**
 	 * 將 Date 物件轉成字串。
 	 *
@@ -29,8 +58,12 @@ public final class DateUtil {
 	 * @return yyyy-MM-dd HH:mm:ss 格式字串
 	 */
 	public static String toDateTimeString(Date dateTime) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-		return sdf.format(dateTime);
+		long time = dateTime.getTime();
+		if (time < FORMATTER_START || time >= FORMATTER_END) {
+			// 儒略曆日期、西元前及五位數年份仍交由 SimpleDateFormat
+			return new SimpleDateFormat(DATE_TIME_PATTERN).format(dateTime);
+		}
+		return DATE_TIME_FORMATTER.format(time);
 	}
 
 	/**
@@ -121,10 +154,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incMilliSecond(Date date, long milliSeconds) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.MILLISECOND, (int)milliSeconds);
-		return cal.getTime();
+		return new Date(Millis.incMilliSecond(date.getTime(), milliSeconds));
 	}
 
 	/**
@@ -135,10 +165,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incSecond(Date date, int second) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.SECOND, second);
-		return cal.getTime();
+		return new Date(Millis.incSecond(date.getTime(), second));
 	}
 
 	/**
@@ -149,10 +176,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incMinute(Date date, int minute) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.MINUTE, minute);
-		return cal.getTime();
+		return new Date(Millis.incMinute(date.getTime(), minute));
 	}
 
 	/**
@@ -163,10 +187,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incHour(Date date, int hour) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.HOUR_OF_DAY, hour);
-		return cal.getTime();
+		return new Date(Millis.incHour(date.getTime(), hour));
 	}
 
 	/**
@@ -177,10 +198,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incDay(Date date, int day) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.DAY_OF_MONTH, day);
-		return cal.getTime();
+		return new Date(Millis.incDay(date.getTime(), day, TimeZone.getDefault()));
 	}
 
 	/**
@@ -191,10 +209,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incWeek(Date date, int week) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.WEEK_OF_YEAR, week);
-		return cal.getTime();
+		return new Date(Millis.incWeek(date.getTime(), week, TimeZone.getDefault()));
 	}
 
 	/**
@@ -205,10 +220,7 @@ public final class DateUtil {
 	 * @return 增加的 Date 物件
 	 */
 	public static Date incMonth(Date date, int month) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.MONTH, month);
-		return cal.getTime();
+		return new Date(Millis.incMonth(date.getTime(), month, TimeZone.getDefault()));
 	}
 
 	/**
@@ -217,15 +229,8 @@ public final class DateUtil {
 	 * @return UTC 的時間
 	 */
 	public static Date nowUTC() {
-		Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-		Calendar cal = Calendar.getInstance();
-		cal.set(Calendar.YEAR, utc.get(Calendar.YEAR));
-		cal.set(Calendar.MONTH, utc.get(Calendar.MONTH));
-		cal.set(Calendar.DAY_OF_MONTH, utc.get(Calendar.DAY_OF_MONTH));
-		cal.set(Calendar.HOUR_OF_DAY, utc.get(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, utc.get(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, utc.get(Calendar.SECOND));
-		return cal.getTime();
+		// 以 UTC 的時間欄位作為本地時間
+		return new Date(ZoneOffsetTable.of(TimeZone.getDefault()).toUtc(clock.millis()));
 	}
 
 	/**
@@ -234,8 +239,7 @@ public final class DateUtil {
 	 * @return 本地時區時間
 	 */
 	public static Date nowLocal() {
-		Calendar cal = Calendar.getInstance();
-		return cal.getTime();
+		return new Date(clock.millis());
 	}
 
 	/**
@@ -244,8 +248,7 @@ public final class DateUtil {
 	 * @return 差異毫秒數
 	 */
 	public static int timeZoneOffsetMillis() {
-		Calendar c = Calendar.getInstance();
-		return c.get(Calendar.ZONE_OFFSET) + c.get(Calendar.DST_OFFSET);
+		return ZoneOffsetCache.offsetMillis(clock.millis());
 	}
 
 	/**
@@ -255,14 +258,7 @@ public final class DateUtil {
 	 * @return 該月第一天
 	 */
 	public static Date startOfTheMonth(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.DAY_OF_MONTH, cal.getActualMinimum(Calendar.DAY_OF_MONTH));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMinimum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMinimum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMinimum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMinimum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.startOfMonth(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -272,14 +268,7 @@ public final class DateUtil {
 	 * @return 該月最後一天
 	 */
 	public static Date endOfTheMonth(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMaximum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMaximum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMaximum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMaximum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.endOfMonth(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -289,15 +278,7 @@ public final class DateUtil {
 	 * @return 該年第一天
 	 */
 	public static Date startOfTheYear(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.MONTH, cal.getActualMinimum(Calendar.MONTH));
-		cal.set(Calendar.DAY_OF_MONTH, cal.getActualMinimum(Calendar.DAY_OF_MONTH));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMinimum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMinimum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMinimum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMinimum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.startOfYear(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -307,15 +288,7 @@ public final class DateUtil {
 	 * @return 該年最後一天
 	 */
 	public static Date endOfTheYear(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.MONTH, cal.getActualMaximum(Calendar.MONTH));
-		cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMaximum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMaximum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMaximum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMaximum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.endOfYear(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -325,14 +298,7 @@ public final class DateUtil {
 	 * @return 該週第一天
 	 */
 	public static Date startOfTheWeek(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.DAY_OF_WEEK, cal.getActualMinimum(Calendar.DAY_OF_WEEK));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMinimum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMinimum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMinimum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMinimum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.startOfWeek(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -342,14 +308,7 @@ public final class DateUtil {
 	 * @return 該週最後一天
 	 */
 	public static Date endOfTheWeek(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.DAY_OF_WEEK, cal.getActualMaximum(Calendar.DAY_OF_WEEK));
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMaximum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMaximum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMaximum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMaximum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.endOfWeek(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -359,13 +318,7 @@ public final class DateUtil {
 	 * @return 該日開頭
 	 */
 	public static Date startOfTheDay(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMinimum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMinimum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMinimum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMinimum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.startOfDay(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -375,13 +328,7 @@ public final class DateUtil {
 	 * @return 該日結尾
 	 */
 	public static Date endOfTheDay(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.HOUR_OF_DAY, cal.getActualMaximum(Calendar.HOUR_OF_DAY));
-		cal.set(Calendar.MINUTE, cal.getActualMaximum(Calendar.MINUTE));
-		cal.set(Calendar.SECOND, cal.getActualMaximum(Calendar.SECOND));
-		cal.set(Calendar.MILLISECOND, cal.getActualMaximum(Calendar.MILLISECOND));
-		return cal.getTime();
+		return new Date(Millis.endOfDay(date.getTime(), TimeZone.getDefault()));
 	}
 
 	/**
@@ -392,7 +339,7 @@ public final class DateUtil {
 	 * @return -1表示a在b之前，0表示a和b相同，1表示a在b之後
 	 */
 	public static int compareDate(Date a, Date b) {
-		return compareDateTime(dateOf(a), dateOf(b));
+		return Millis.compareDate(a.getTime(), b.getTime(), TimeZone.getDefault());
 	}
 
 	/**
@@ -403,11 +350,7 @@ public final class DateUtil {
 	 * @return -1表示a在b之前，0表示a和b相同，1表示a在b之後
 	 */
 	public static int compareDateTime(Date a, Date b) {
-		Calendar cal1 = Calendar.getInstance();
-		cal1.setTime(a);
-		Calendar cal2 = Calendar.getInstance();
-		cal2.setTime(b);
-		return cal1.compareTo(cal2);
+		return Millis.compare(a.getTime(), b.getTime());
 	}
 
 	/**
@@ -417,12 +360,7 @@ public final class DateUtil {
 	 * @return Java格式GMT時間
 	 */
 	public static Date delphiTimeToJavaTime(final double time) {
-		long timeZoneOffsetMillis = timeZoneOffsetMillis();
-		long millis = (long)((time - DAYS_BETWEEN_18991230_AND_19700101) * MILLISECONDS_PER_DAY - timeZoneOffsetMillis);
-		// 再轉一次，消除誤差
-		double delphiTime = (millis + timeZoneOffsetMillis + DAYS_BETWEEN_18991230_AND_19700101 * MILLISECONDS_PER_DAY) / (double)MILLISECONDS_PER_DAY;
-		millis = (long)((delphiTime - DAYS_BETWEEN_18991230_AND_19700101) * MILLISECONDS_PER_DAY - timeZoneOffsetMillis);
-		return new Date(millis);
+		return new Date(Millis.fromDelphiTime(time, timeZoneOffsetMillis()));
 	}
 
 	/**
@@ -435,10 +373,7 @@ public final class DateUtil {
 		if (time == null) {
 			return 0.0;
 		}
-		long timeZoneOffsetMillis = timeZoneOffsetMillis();
-		return (time.getTime() + timeZoneOffsetMillis + DAYS_BETWEEN_18991230_AND_19700101
-				* MILLISECONDS_PER_DAY)
-				/ (double) MILLISECONDS_PER_DAY;
+		return Millis.toDelphiTime(time.getTime(), timeZoneOffsetMillis());
 	}
 
 	/**
@@ -448,7 +383,7 @@ public final class DateUtil {
 	 * @return Date 物件
 	 */
 	public static Date fileTimeToJavaTime(final long time){
-		return new Date(time / MILLISECOND_MULTIPLE - UNIX_FILETIME_DIFF);
+		return new Date(Millis.fromFileTime(time));
 	}
 
 	/**
@@ -470,4 +405,438 @@ public final class DateUtil {
 	public static Date toUtcTime(Date value) {
 		return new Date(value.getTime() - timeZoneOffsetMillis());
 	}
+
+	/**
+	 * 以 epoch 毫秒運算的日期工具，不建立 Calendar 或 Date 物件。
+	 * 時區偏移量 (含日光節約時間) 由快取的轉換點表取得。日期採用前推格里曆 (proleptic Gregorian)。
+	 */
+	public static final class Millis {
+		private static final long DAYS_0000_TO_1970 = 719468;
+		private static final long DAYS_PER_ERA = 146097;
+
+		/**
+		 * Util 類別不允許直接初始化。
+		 */
+		private Millis() {
+			throw new UnsupportedOperationException("DateUtil.Millis class cannot be initiated directly.");
+		}
+
+		/**
+		 * 取得某時間點 UTC 與時區的差異毫秒數。含日光節約時間 (有的話)
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 差異毫秒數
+		 */
+		public static int offset(long epochMillis, @Nonnull TimeZone zone) {
+			return ZoneOffsetTable.of(zone).offsetAt(epochMillis);
+		}
+
+		/**
+		 * 增加毫秒。
+		 *
+		 * @param epochMillis 時間點
+		 * @param milliSeconds 毫秒
+		 * @return 增加後的時間點
+		 */
+		public static long incMilliSecond(long epochMillis, long milliSeconds) {
+			return epochMillis + milliSeconds;
+		}
+
+		/**
+		 * 增加秒。
+		 *
+		 * @param epochMillis 時間點
+		 * @param second 秒
+		 * @return 增加後的時間點
+		 */
+		public static long incSecond(long epochMillis, int second) {
+			return epochMillis + second * 1000L;
+		}
+
+		/**
+		 * 增加分。
+		 *
+		 * @param epochMillis 時間點
+		 * @param minute 分
+		 * @return 增加後的時間點
+		 */
+		public static long incMinute(long epochMillis, int minute) {
+			return epochMillis + minute * 60000L;
+		}
+
+		/**
+		 * 增加時。
+		 *
+		 * @param epochMillis 時間點
+		 * @param hour 時
+		 * @return 增加後的時間點
+		 */
+		public static long incHour(long epochMillis, int hour) {
+			return epochMillis + hour * 3600000L;
+		}
+
+		/**
+		 * 增加天，保留本地時間的時分秒。
+		 *
+		 * @param epochMillis 時間點
+		 * @param day 天
+		 * @param zone 時區
+		 * @return 增加後的時間點
+		 */
+		public static long incDay(long epochMillis, int day, @Nonnull TimeZone zone) {
+			return addDays(epochMillis, day, ZoneOffsetTable.of(zone));
+		}
+
+		/**
+		 * 增加週，保留本地時間的時分秒。
+		 *
+		 * @param epochMillis 時間點
+		 * @param week 週
+		 * @param zone 時區
+		 * @return 增加後的時間點
+		 */
+		public static long incWeek(long epochMillis, int week, @Nonnull TimeZone zone) {
+			return addDays(epochMillis, week * 7L, ZoneOffsetTable.of(zone));
+		}
+
+		/**
+		 * 增加月，保留本地時間的時分秒。若該月沒有同一天，則取該月最後一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param month 月
+		 * @param zone 時區
+		 * @return 增加後的時間點
+		 */
+		public static long incMonth(long epochMillis, int month, @Nonnull TimeZone zone) {
+			if (month == 0) {
+				return epochMillis;
+			}
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long local = localMillis(epochMillis, table);
+			long days = floorDiv(local, MILLISECONDS_PER_DAY);
+			long timeOfDay = local - days * MILLISECONDS_PER_DAY;
+			long ymd = civilFromDays(days);
+
+			long months = yearOf(ymd) * 12 + monthOf(ymd) - 1 + month;
+			long newYear = floorDiv(months, 12);
+			int newMonth = (int) (months - newYear * 12) + 1;
+			int newDay = Math.min(dayOf(ymd), lengthOfMonth(newYear, newMonth));
+			return table.toUtc(
+				daysFromCivil(newYear, newMonth, newDay) * MILLISECONDS_PER_DAY + timeOfDay
+			);
+		}
+
+		/**
+		 * 取得該日開頭。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該日開頭
+		 */
+		public static long startOfDay(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			return table.toUtc(localDays(epochMillis, table) * MILLISECONDS_PER_DAY);
+		}
+
+		/**
+		 * 取得該日結尾。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該日結尾
+		 */
+		public static long endOfDay(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			return table.toUtc(endOfLocalDay(localDays(epochMillis, table)));
+		}
+
+		/**
+		 * 取得該週第一天 (週日)。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該週第一天
+		 */
+		public static long startOfWeek(long epochMillis, @Nonnull TimeZone zone) {
+			return startOfWeek(epochMillis, zone, Calendar.SUNDAY);
+		}
+
+		/**
+		 * 取得該週第一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @param firstDayOfWeek 一週的第一天，例如 {@link Calendar#MONDAY}
+		 * @return 該週第一天
+		 */
+		public static long startOfWeek(long epochMillis, @Nonnull TimeZone zone, int firstDayOfWeek) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long days = localDays(epochMillis, table);
+			days -= floorMod(dayOfWeek(days) - firstDayOfWeek, 7);
+			return table.toUtc(days * MILLISECONDS_PER_DAY);
+		}
+
+		/**
+		 * 取得該週最後一天 (週六)。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該週最後一天
+		 */
+		public static long endOfWeek(long epochMillis, @Nonnull TimeZone zone) {
+			return endOfWeek(epochMillis, zone, Calendar.SUNDAY);
+		}
+
+		/**
+		 * 取得該週最後一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @param firstDayOfWeek 一週的第一天，例如 {@link Calendar#MONDAY}
+		 * @return 該週最後一天
+		 */
+		public static long endOfWeek(long epochMillis, @Nonnull TimeZone zone, int firstDayOfWeek) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long days = localDays(epochMillis, table);
+			days += 6 - floorMod(dayOfWeek(days) - firstDayOfWeek, 7);
+			return table.toUtc(endOfLocalDay(days));
+		}
+
+		/**
+		 * 取得該月第一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該月第一天
+		 */
+		public static long startOfMonth(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long ymd = civilFromDays(localDays(epochMillis, table));
+			return table.toUtc(
+				daysFromCivil(yearOf(ymd), monthOf(ymd), 1) * MILLISECONDS_PER_DAY
+			);
+		}
+
+		/**
+		 * 取得該月最後一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該月最後一天
+		 */
+		public static long endOfMonth(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long ymd = civilFromDays(localDays(epochMillis, table));
+			long year = yearOf(ymd);
+			int month = monthOf(ymd);
+			return table.toUtc(
+				endOfLocalDay(daysFromCivil(year, month, lengthOfMonth(year, month)))
+			);
+		}
+
+		/**
+		 * 取得該年第一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該年第一天
+		 */
+		public static long startOfYear(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long ymd = civilFromDays(localDays(epochMillis, table));
+			return table.toUtc(daysFromCivil(yearOf(ymd), 1, 1) * MILLISECONDS_PER_DAY);
+		}
+
+		/**
+		 * 取得該年最後一天。
+		 *
+		 * @param epochMillis 時間點
+		 * @param zone 時區
+		 * @return 該年最後一天
+		 */
+		public static long endOfYear(long epochMillis, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			long ymd = civilFromDays(localDays(epochMillis, table));
+			return table.toUtc(endOfLocalDay(daysFromCivil(yearOf(ymd), 12, 31)));
+		}
+
+		/**
+		 * 將Delphi格式的時間轉成 epoch 毫秒。
+		 *
+		 * @param time Delphi格式時間
+		 * @param offsetMillis Delphi格式時間的時區偏移毫秒數
+		 * @return 時間點
+		 */
+		public static long fromDelphiTime(double time, int offsetMillis) {
+			long millis = (long) ((time - DAYS_BETWEEN_18991230_AND_19700101) * MILLISECONDS_PER_DAY - offsetMillis);
+			// 再轉一次，消除誤差
+			double delphiTime = toDelphiTime(millis, offsetMillis);
+			return (long) ((delphiTime - DAYS_BETWEEN_18991230_AND_19700101) * MILLISECONDS_PER_DAY - offsetMillis);
+		}
+
+		/**
+		 * 將 epoch 毫秒轉成Delphi格式。
+		 *
+		 * @param epochMillis 時間點
+		 * @param offsetMillis Delphi格式時間的時區偏移毫秒數
+		 * @return Delphi格式時間
+		 */
+		public static double toDelphiTime(long epochMillis, int offsetMillis) {
+			return (epochMillis + offsetMillis + DAYS_BETWEEN_18991230_AND_19700101 * MILLISECONDS_PER_DAY)
+				/ (double) MILLISECONDS_PER_DAY;
+		}
+
+		/**
+		 * 檔案時間轉成 epoch 毫秒。
+		 *
+		 * @param time 檔案時間 (1601-01-01 起算的 100 奈秒數)
+		 * @return 時間點
+		 */
+		public static long fromFileTime(long time) {
+			return time / MILLISECOND_MULTIPLE - UNIX_FILETIME_DIFF;
+		}
+
+		/**
+		 * epoch 毫秒轉成檔案時間。
+		 *
+		 * @param epochMillis 時間點
+		 * @return 檔案時間 (1601-01-01 起算的 100 奈秒數)
+		 */
+		public static long toFileTime(long epochMillis) {
+			return (epochMillis + UNIX_FILETIME_DIFF) * MILLISECOND_MULTIPLE;
+		}
+
+		/**
+		 * 比較兩個日期時間。
+		 *
+		 * @param a 第一個日期時間
+		 * @param b 第二個日期時間
+		 * @return -1表示a在b之前，0表示a和b相同，1表示a在b之後
+		 */
+		public static int compare(long a, long b) {
+			return a < b ? BEFORE : (a == b ? EQUAL : AFTER);
+		}
+
+		/**
+		 * 比較兩個日期，忽略時間。
+		 *
+		 * @param a 第一個日期
+		 * @param b 第二個日期
+		 * @param zone 時區
+		 * @return -1表示a在b之前，0表示a和b相同，1表示a在b之後
+		 */
+		public static int compareDate(long a, long b, @Nonnull TimeZone zone) {
+			ZoneOffsetTable table = ZoneOffsetTable.of(zone);
+			return compare(localDays(a, table), localDays(b, table));
+		}
+
+		private static long localMillis(long epochMillis, ZoneOffsetTable table) {
+			return epochMillis + table.offsetAt(epochMillis);
+		}
+
+		/**
+		 * 與 {@link Calendar#add} 相同：先沿用原本的偏移量，若偏移量改變且調整後仍是同一天才調整。
+		 */
+		static long addDays(long epochMillis, long days, ZoneOffsetTable table) {
+			int offset = table.offsetAt(epochMillis);
+			long local = epochMillis + offset + days * MILLISECONDS_PER_DAY;
+			long result = local - offset;
+			int newOffset = table.offsetAt(result);
+			if (newOffset != offset) {
+				long adjusted = result + offset - newOffset;
+				if (localDays(adjusted, table) == floorDiv(local, MILLISECONDS_PER_DAY)) {
+					result = adjusted;
+				}
+			}
+			return result;
+		}
+
+		private static long localDays(long epochMillis, ZoneOffsetTable table) {
+			return floorDiv(localMillis(epochMillis, table), MILLISECONDS_PER_DAY);
+		}
+
+		private static long endOfLocalDay(long days) {
+			return (days + 1) * MILLISECONDS_PER_DAY - 1;
+		}
+
+		/**
+		 * @return {@link Calendar#SUNDAY} 到 {@link Calendar#SATURDAY}
+		 */
+		static int dayOfWeek(long days) {
+			// 1970-01-01 是週四
+			return (int) floorMod(days + Calendar.THURSDAY - 1, 7) + 1;
+		}
+
+		private static boolean isLeapYear(long year) {
+			return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+		}
+
+		static int lengthOfMonth(long year, int month) {
+			switch (month) {
+				case 2:
+					return isLeapYear(year) ? 29 : 28;
+				case 4:
+				case 6:
+				case 9:
+				case 11:
+					return 30;
+				default:
+					return 31;
+			}
+		}
+
+		/**
+		 * 年月日轉為 1970-01-01 起算的天數。
+		 */
+		static long daysFromCivil(long year, int month, int day) {
+			long y = month <= 2 ? year - 1 : year;
+			long era = floorDiv(y, 400);
+			long yearOfEra = y - era * 400;
+			int monthFromMarch = month > 2 ? month - 3 : month + 9;
+			long dayOfYear = (153 * monthFromMarch + 2) / 5 + day - 1;
+			long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+			return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+		}
+
+		/**
+		 * 1970-01-01 起算的天數轉為年月日，以 (年 &lt;&lt; 9 | 月 &lt;&lt; 5 | 日) 表示，避免建立物件。
+		 */
+		static long civilFromDays(long days) {
+			long z = days + DAYS_0000_TO_1970;
+			long era = floorDiv(z, DAYS_PER_ERA);
+			long dayOfEra = z - era * DAYS_PER_ERA;
+			long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+			long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+			long monthFromMarch = (5 * dayOfYear + 2) / 153;
+			long day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+			long month = monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+			long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+			return (year << 9) | (month << 5) | day;
+		}
+
+		static long yearOf(long ymd) {
+			return ymd >> 9;
+		}
+
+		static int monthOf(long ymd) {
+			return (int) (ymd >> 5) & 0xF;
+		}
+
+		static int dayOf(long ymd) {
+			return (int) ymd & 0x1F;
+		}
+
+		static long floorDiv(long x, long y) {
+			long q = x / y;
+			if ((x % y != 0) && ((x ^ y) < 0)) {
+				q--;
+			}
+			return q;
+		}
+
+		static long floorMod(long x, long y) {
+			return x - floorDiv(x, y) * y;
+		}
+	}
 }
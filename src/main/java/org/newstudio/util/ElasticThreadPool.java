@@ -0,0 +1,276 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 依佇列等待時間及處理量在 min 與 max 之間自動調整大小的執行緒池。Thread-safe。
+ *
+ * 背景執行緒每隔一段時間比較這段期間的平均佇列等待時間與目標值 (hill climbing)：
+ * <ul>
+ * <li>等待時間超過目標時增加執行緒，累積足夠樣本後比較增加前後的處理量；
+ * 若提升不到預期的一半，表示瓶頸不在執行緒數，改回原本大小並暫停增加。</li>
+ * <li>佇列為空、等待時間低於目標一半且有閒置執行緒時減少一個執行緒。</li>
+ * <li>其他情況維持不變。</li>
+ * </ul>
+ *
+ * @author Scribe Huang
+ * @see ExecutorUtil#newElasticThreadPool(String, int, int, long, long, TimeUnit)
+ */
+public final class ElasticThreadPool extends AbstractExecutorService {
+	/**
+	 * 調整決策。
+	 */
+	public enum Decision {
+		/** 增加執行緒。 */
+		GROW,
+		/** 減少執行緒。 */
+		SHRINK,
+		/** 維持不變。 */
+		HOLD,
+		/** 增加後處理量沒有提升，改回原本大小。 */
+		REVERT
+	}
+
+	/** 評估增加執行緒的效果前，每個執行緒至少要完成的工作數。 */
+	private static final int MIN_SAMPLES_PER_THREAD = 4;
+	/** 評估增加執行緒的效果最多等待的調整次數。 */
+	private static final int MAX_EVALUATION_ROUNDS = 10;
+	/** 改回原本大小後暫停增加的調整次數。 */
+	private static final int PLATEAU_ROUNDS = 10;
+	private static final AtomicInteger COUNTER = new AtomicInteger(1);
+
+	private final int minSize;
+	private final int maxSize;
+	private final long targetWaitNanos;
+	private final long intervalNanos;
+	private final ExecutorMetrics metrics = new ExecutorMetrics();
+	private final ExecutorUtil.InstrumentedThreadPoolExecutor pool;
+	private final Thread controller;
+	private final AtomicLongArray decisions = new AtomicLongArray(Decision.values().length);
+	private volatile Decision lastDecision = Decision.HOLD;
+
+	@GuardedBy("this")
+	private long lastWaitSum;
+	@GuardedBy("this")
+	private long lastWaitCount;
+	/** 上次調整大小時的完成數及時間，用來計算目前大小的處理量。 */
+	@GuardedBy("this")
+	private long windowCompleted;
+	@GuardedBy("this")
+	private long windowStart = System.nanoTime();
+	/** 評估中的增加前大小，沒有在評估時為 0。 */
+	@GuardedBy("this")
+	private int grownFrom;
+	/** 增加前的處理量。 */
+	@GuardedBy("this")
+	private double baseline;
+	@GuardedBy("this")
+	private int plateau;
+
+	ElasticThreadPool(@Nonnull ThreadFactory threadFactory, int minSize, int maxSize,
+	                  long targetWait, long interval, @Nonnull TimeUnit unit) {
+		if (minSize <= 0 || maxSize < minSize) {
+			throw new IllegalArgumentException("Sizes must satisfy 0 < min <= max.");
+		}
+		if (targetWait <= 0 || interval <= 0) {
+			throw new IllegalArgumentException("Target wait and interval must be positive.");
+		}
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		targetWaitNanos = unit.toNanos(targetWait);
+		intervalNanos = unit.toNanos(interval);
+		pool = new ExecutorUtil.InstrumentedThreadPoolExecutor(minSize, threadFactory, metrics);
+		controller = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				control();
+			}
+		}, "ElasticController-" + COUNTER.getAndIncrement());
+		controller.setDaemon(true);
+		controller.start();
+	}
+
+	@Override
+	public void execute(@Nonnull Runnable command) {
+		pool.execute(command);
+	}
+
+	@Override
+	public void shutdown() {
+		controller.interrupt();
+		pool.shutdown();
+	}
+
+	@Nonnull
+	@Override
+	public List<Runnable> shutdownNow() {
+		controller.interrupt();
+		return pool.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return pool.isShutdown();
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return pool.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+		return pool.awaitTermination(timeout, unit);
+	}
+
+	/**
+	 * @return 目前池中的執行緒數
+	 */
+	public int getPoolSize() {
+		return pool.getPoolSize();
+	}
+
+	/**
+	 * @return 控制器決定的執行緒數，閒置的執行緒結束前可能小於 {@link #getPoolSize()}
+	 */
+	public int getTargetSize() {
+		return pool.getCorePoolSize();
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return 最近一次的調整決策
+	 */
+	@Nonnull
+	public Decision getLastDecision() {
+		return lastDecision;
+	}
+
+	/**
+	 * @param decision 調整決策
+	 * @return 建立以來做出該決策的次數
+	 */
+	public long getDecisionCount(@Nonnull Decision decision) {
+		return decisions.get(decision.ordinal());
+	}
+
+	/**
+	 * @return 佇列等待時間、執行時間等統計資料
+	 */
+	@Nonnull
+	public ExecutorMetrics getMetrics() {
+		return metrics;
+	}
+
+	private void control() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				TimeUnit.NANOSECONDS.sleep(intervalNanos);
+				adjust();
+			}
+		} catch (InterruptedException ignored) {
+		}
+	}
+
+	/**
+	 * 依上次調整以來的統計資料調整一次大小。
+	 *
+	 * @return 調整決策
+	 */
+	@Nonnull
+	synchronized Decision adjust() {
+		long now = System.nanoTime();
+		int size = pool.getCorePoolSize();
+		long completed = metrics.getCompletedCount();
+		long waitSum = metrics.getQueueWait().getSum();
+		long waitCount = metrics.getQueueWait().getCount();
+		long avgWait = waitCount > lastWaitCount ? (waitSum - lastWaitSum) / (waitCount - lastWaitCount) : 0;
+		lastWaitSum = waitSum;
+		lastWaitCount = waitCount;
+		long done = completed - windowCompleted;
+		long elapsed = Math.max(1, now - windowStart);
+		double throughput = done * 1e9 / elapsed;
+
+		Decision decision = Decision.HOLD;
+		int target = size;
+		if (grownFrom > 0) {
+			// 單次間隔完成的工作太少時處理量不準確，累積足夠的樣本再評估
+			if (done < (long) MIN_SAMPLES_PER_THREAD * size && elapsed < MAX_EVALUATION_ROUNDS * intervalNanos) {
+				return record(Decision.HOLD);
+			}
+			// 受限於執行緒數時處理量應與執行緒數成正比，提升不到預期的一半就改回
+			double expected = (double) size / grownFrom;
+			if (throughput < baseline * (1 + (expected - 1) / 2)) {
+				decision = Decision.REVERT;
+				target = grownFrom;
+				plateau = PLATEAU_ROUNDS;
+			}
+			grownFrom = 0;
+		}
+
+		if (decision == Decision.HOLD) {
+			// 工作開始執行後才記錄等待時間，執行緒都忙碌時另外檢查佇列最前面的工作已等待多久；
+			// 佇列已清空時不再增加
+			boolean backlog = metrics.getQueueSize() > 0
+					&& Math.max(avgWait, pool.oldestWaitNanos()) > targetWaitNanos;
+			if (backlog && size < maxSize && plateau == 0) {
+				decision = Decision.GROW;
+				target = Math.min(maxSize, size + Math.max(1, size / 4));
+				grownFrom = size;
+				baseline = throughput;
+			} else if (metrics.getQueueSize() == 0 && avgWait <= targetWaitNanos / 2
+					&& metrics.getIdleCount() > 0 && size > minSize) {
+				decision = Decision.SHRINK;
+				target = size - 1;
+			}
+		}
+		if (plateau > 0 && decision != Decision.REVERT) {
+			plateau--;
+		}
+
+		if (target != size) {
+			resize(target);
+			windowCompleted = completed;
+			windowStart = now;
+		}
+		return record(decision);
+	}
+
+	@Nonnull
+	private Decision record(@Nonnull Decision decision) {
+		lastDecision = decision;
+		decisions.incrementAndGet(decision.ordinal());
+		return decision;
+	}
+
+	private void resize(int target) {
+		int size = pool.getCorePoolSize();
+		if (target > size) {
+			pool.setMaximumPoolSize(target);
+			pool.setCorePoolSize(target);
+		} else if (target < size) {
+			pool.setCorePoolSize(target);
+			pool.setMaximumPoolSize(target);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ElasticThreadPool(" + minSize + ".." + maxSize + ", size=" + getTargetSize()
+				+ ", last=" + lastDecision + ")";
+	}
+}
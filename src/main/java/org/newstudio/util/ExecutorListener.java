@@ -0,0 +1,31 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 執行緒池的工作通知。預設不做任何事，依需要覆寫方法。
+ * 通知在執行工作或提交工作的執行緒上執行，不應阻塞；丟出的例外只會記錄在 log 中。
+ *
+ * @author Scribe Huang
+ * @see ExecutorMetrics#withListener(ExecutorListener)
+ */
+public abstract class ExecutorListener {
+	/**
+	 * 工作結束通知。
+	 *
+	 * @param waitNanos 在佇列中等待的奈秒數，排程工作為超過預定時間的奈秒數
+	 * @param runNanos 執行的奈秒數
+	 * @param failure 工作丟出的例外，成功時為 null
+	 */
+	public void onTaskCompleted(long waitNanos, long runNanos, @Nullable Throwable failure) {
+	}
+
+	/**
+	 * 工作被拒絕的通知，通知後提交端會收到 {@link java.util.concurrent.RejectedExecutionException}。
+	 *
+	 * @param task 被拒絕的工作
+	 */
+	public void onTaskRejected(@Nonnull Runnable task) {
+	}
+}
@@ -0,0 +1,232 @@
+package org.newstudio.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 執行緒池的統計資料，用來判斷執行緒池是否飽和及調整大小。Thread-safe。
+ *
+ * 計數使用 {@link StripedCounter}、時間使用 {@link Histogram}，工作執行緒之間不會互相競爭。
+ * 每個實例只能用於一個執行緒池。
+ *
+ * <pre>
+ * ExecutorMetrics metrics = new ExecutorMetrics();
+ * ExecutorService pool = ExecutorUtil.newFixedThreadPool("worker-%d", 8, metrics);
+ * ...
+ * metrics.getQueueWait().percentile(0.99);  // 奈秒
+ * </pre>
+ *
+ * @author Scribe Huang
+ * @see ExecutorUtil#newFixedThreadPool(String, int, ExecutorMetrics)
+ * @see ExecutorUtil#newScheduledThreadPool(String, int, ExecutorMetrics)
+ */
+public final class ExecutorMetrics {
+	private static final Logger LOG = LoggerFactory.getLogger(ExecutorMetrics.class);
+
+	private final Histogram queueWait = new Histogram();
+	private final Histogram runTime = new Histogram();
+	private final StripedCounter started = new StripedCounter();
+	private final StripedCounter finished = new StripedCounter();
+	private final StripedCounter failed = new StripedCounter();
+	private final StripedCounter rejected = new StripedCounter();
+	/** 執行中工作的等待時間及開始時間。 */
+	private final ThreadLocal<long[]> current = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[2];
+		}
+	};
+
+	private volatile ExecutorListener listener;
+	private volatile ThreadPoolExecutor pool;
+	private volatile long finishedBase;
+	private volatile long statisticsStart = System.nanoTime();
+
+	/**
+	 * 指定工作通知，預設不通知。
+	 *
+	 * @param executorListener 工作通知，null 表示不通知
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public ExecutorMetrics withListener(@Nullable ExecutorListener executorListener) {
+		listener = executorListener;
+		return this;
+	}
+
+	synchronized void attach(@Nonnull ThreadPoolExecutor executor) {
+		if (pool != null) {
+			throw new IllegalStateException("The metrics is already attached to another executor.");
+		}
+		pool = executor;
+	}
+
+	void beforeExecute(long waitNanos) {
+		long[] timing = current.get();
+		timing[0] = Math.max(0, waitNanos);
+		started.increment();
+		timing[1] = System.nanoTime();
+	}
+
+	void afterExecute(@Nonnull Runnable task, @Nullable Throwable thrown) {
+		long[] timing = current.get();
+		long runNanos = System.nanoTime() - timing[1];
+		finished.increment();
+		queueWait.record(timing[0]);
+		runTime.record(runNanos);
+		Throwable failure = thrown != null ? thrown : failureOf(task);
+		if (failure != null) {
+			failed.increment();
+		}
+		ExecutorListener l = listener;
+		if (l != null) {
+			try {
+				l.onTaskCompleted(timing[0], runNanos, failure);
+			} catch (RuntimeException ex) {
+				LOG.warn("Executor listener failed.", ex);
+			}
+		}
+	}
+
+	void rejected(@Nonnull Runnable task) {
+		rejected.increment();
+		ExecutorListener l = listener;
+		if (l != null) {
+			try {
+				l.onTaskRejected(task);
+			} catch (RuntimeException ex) {
+				LOG.warn("Executor listener failed.", ex);
+			}
+		}
+	}
+
+	/**
+	 * submit 的工作把例外包在 Future 中，執行結束後才取得。
+	 */
+	@Nullable
+	private static Throwable failureOf(@Nonnull Runnable task) {
+		if (!(task instanceof Future) || !((Future<?>) task).isDone()) {
+			return null;
+		}
+		try {
+			((Future<?>) task).get();
+			return null;
+		} catch (ExecutionException ex) {
+			return ex.getCause();
+		} catch (CancellationException ex) {
+			return null;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * @return 工作在佇列中等待的奈秒數，排程工作為超過預定時間的奈秒數
+	 */
+	@Nonnull
+	public Histogram getQueueWait() {
+		return queueWait;
+	}
+
+	/**
+	 * @return 工作執行的奈秒數
+	 */
+	@Nonnull
+	public Histogram getRunTime() {
+		return runTime;
+	}
+
+	/**
+	 * @return 正在執行工作的執行緒數
+	 */
+	public int getActiveCount() {
+		return (int) Math.max(0, started.sum() - finished.sum());
+	}
+
+	/**
+	 * @return 池中的執行緒數
+	 */
+	public int getPoolSize() {
+		ThreadPoolExecutor p = pool;
+		return p == null ? 0 : p.getPoolSize();
+	}
+
+	/**
+	 * @return 閒置的執行緒數
+	 */
+	public int getIdleCount() {
+		return Math.max(0, getPoolSize() - getActiveCount());
+	}
+
+	/**
+	 * @return 佇列中等待執行的工作數
+	 */
+	public int getQueueSize() {
+		ThreadPoolExecutor p = pool;
+		return p == null ? 0 : p.getQueue().size();
+	}
+
+	/**
+	 * @return 自建立或上次 {@link #resetStatistics()} 以來執行完的工作數 (含失敗)
+	 */
+	public long getCompletedCount() {
+		return finished.sum() - finishedBase;
+	}
+
+	/**
+	 * @return 自建立或上次 {@link #resetStatistics()} 以來丟出例外的工作數
+	 */
+	public long getFailedCount() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return 自建立或上次 {@link #resetStatistics()} 以來被拒絕的工作數
+	 */
+	public long getRejectedCount() {
+		return rejected.sum();
+	}
+
+	/**
+	 * 執行緒忙碌的比例，為工作執行時間總和除以 (經過時間 × 核心執行緒數)。
+	 * 長期接近 1 且佇列等待時間增加時表示執行緒不足。
+	 *
+	 * @return 0 至 1 之間的使用率
+	 */
+	public double getUtilization() {
+		ThreadPoolExecutor p = pool;
+		long elapsed = System.nanoTime() - statisticsStart;
+		if (p == null || elapsed <= 0) {
+			return 0;
+		}
+		return Math.min(1, (double) runTime.getSum() / elapsed / Math.max(1, p.getCorePoolSize()));
+	}
+
+	/**
+	 * 重新開始統計。不影響執行中的執行緒數。
+	 */
+	public void resetStatistics() {
+		queueWait.reset();
+		runTime.reset();
+		failed.reset();
+		rejected.reset();
+		finishedBase = finished.sum();
+		statisticsStart = System.nanoTime();
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutorMetrics(active=" + getActiveCount() + ", idle=" + getIdleCount()
+				+ ", queued=" + getQueueSize() + ", completed=" + getCompletedCount()
+				+ ", rejected=" + getRejectedCount() + ", wait p99<=" + queueWait.percentile(0.99) + " ns"
+				+ ", run p99<=" + runTime.percentile(0.99) + " ns)";
+	}
+}
@@ -1,10 +1,32 @@
 package org.newstudio.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableScheduledFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -13,6 +35,34 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @author Scribe Huang
  */
 public final class ExecutorUtil {
+	private static final Logger LOG = LoggerFactory.getLogger(ExecutorUtil.class);
+	private static final boolean IS_LINUX = System.getProperty("os.name", "").startsWith("Linux");
+
+	/** 建立 virtual thread 工廠的方法 {@code Thread.ofVirtual()}，不支援時為 null。 */
+	private static final Method OF_VIRTUAL;
+	/** {@code Thread.Builder.factory()}。 */
+	private static final Method BUILDER_FACTORY;
+	/** {@code Executors.newThreadPerTaskExecutor(ThreadFactory)}。 */
+	private static final Method NEW_THREAD_PER_TASK;
+
+	static {
+		Method ofVirtual = null;
+		Method factory = null;
+		Method perTask = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			// 預覽版未啟用時會丟出 UnsupportedOperationException
+			factory.invoke(ofVirtual.invoke(null));
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_FACTORY = factory;
+		NEW_THREAD_PER_TASK = perTask;
+	}
+
 	private ExecutorUtil() {
 		throw new UnsupportedOperationException(
 			"Class ExecutorUtil doesn't support new instance."
@@ -20,7 +70,8 @@ public final class ExecutorUtil {
 	}
 
 	/**
-	 * 可自訂命名規則的執行緒工廠。
+	 * 可自訂命名規則的執行緒工廠。預設建立非 daemon、一般優先權、預設堆疊大小的執行緒，
+	 * 其他設定請使用 {@link #builder(String)}。
 	 *
 	 * @see java.util.concurrent.Executors.DefaultThreadFactory
 	 */
@@ -28,6 +79,15 @@ public final class ExecutorUtil {
 		private final ThreadGroup group;
 		private final AtomicInteger threadNumber = new AtomicInteger(1);
 		private final String nameFormat;
+		/** 命名規則只有一個 %d 時，分成前後兩段直接串接，不需每次呼叫 String.format。 */
+		private final String namePrefix;
+		private final String nameSuffix;
+		private final boolean daemon;
+		private final int priority;
+		private final long stackSize;
+		private final Thread.UncaughtExceptionHandler handler;
+		private final Runnable warmup;
+		private final String cpuList;
 
 		/**
 		 * 設定新執行緒的命名規則。命名規則中可傳入 %d 作為唯一流水編號。
@@ -36,27 +96,259 @@ public final class ExecutorUtil {
 		 * @param nameFormat 新執行緒的命名規則
 		 */
 		public NamingThreadFactory(@Nonnull String nameFormat) {
+			this(new Builder(nameFormat));
+		}
+
+		private NamingThreadFactory(@Nonnull Builder builder) {
 			SecurityManager s = System.getSecurityManager();
 			this.group = (s != null)
 				? s.getThreadGroup()
 				: Thread.currentThread().getThreadGroup();
-			this.nameFormat = nameFormat;
+			this.nameFormat = builder.nameFormat;
+			int index = nameFormat.indexOf("%d");
+			boolean simple = index >= 0 && nameFormat.indexOf('%', index + 2) < 0
+				&& nameFormat.lastIndexOf('%', index - 1) < 0;
+			this.namePrefix = simple ? nameFormat.substring(0, index) : null;
+			this.nameSuffix = simple ? nameFormat.substring(index + 2) : null;
+			this.daemon = builder.daemon;
+			this.priority = builder.priority;
+			this.stackSize = builder.stackSize;
+			this.handler = builder.handler;
+			this.warmup = builder.warmup;
+			this.cpuList = builder.cpuList;
+		}
+
+		/**
+		 * 以 Builder 設定執行緒的其他屬性。
+		 *
+		 * @param nameFormat 新執行緒的命名規則，可傳入 %d 作為唯一流水編號
+		 * @return Builder
+		 */
+		@Nonnull
+		public static Builder builder(@Nonnull String nameFormat) {
+			return new Builder(nameFormat);
 		}
 
 		@Override
 		public Thread newThread(@Nonnull Runnable r) {
-			Thread t = new Thread(group, r, getThreadName(), 0);
-			t.setDaemon(false);
-			t.setPriority(Thread.NORM_PRIORITY);
+			Runnable task = warmup == null && cpuList == null ? r : new Starter(r);
+			Thread t = new Thread(group, task, getThreadName(), stackSize);
+			t.setDaemon(daemon);
+			t.setPriority(priority);
+			if (handler != null) {
+				t.setUncaughtExceptionHandler(handler);
+			}
 			return t;
 		}
 
 		@Nonnull
-		private String getThreadName() {
+		String getThreadName() {
+			int n = threadNumber.getAndIncrement();
+			if (namePrefix != null) {
+				return namePrefix + n + nameSuffix;
+			}
 			return String.format(
-				nameFormat, threadNumber.getAndIncrement()
+				nameFormat, n
 			);
 		}
+
+		/**
+		 * 在新執行緒上先套用 CPU 設定及執行暖機動作，再執行原本的工作。
+		 */
+		private final class Starter implements Runnable {
+			private final Runnable task;
+
+			Starter(@Nonnull Runnable task) {
+				this.task = task;
+			}
+
+			@Override
+			public void run() {
+				if (cpuList != null) {
+					pinCurrentThread(cpuList);
+				}
+				if (warmup != null) {
+					warmup.run();
+				}
+				task.run();
+			}
+		}
+
+		/**
+		 * {@link NamingThreadFactory} 的設定。
+		 */
+		public static final class Builder {
+			private final String nameFormat;
+			private boolean daemon;
+			private int priority = Thread.NORM_PRIORITY;
+			private long stackSize;
+			private Thread.UncaughtExceptionHandler handler;
+			private Runnable warmup;
+			private String cpuList;
+
+			private Builder(@Nonnull String nameFormat) {
+				this.nameFormat = Objects.requireNonNull(nameFormat, "The name format is null.");
+			}
+
+			/**
+			 * 指定是否為 daemon 執行緒，預設為否。
+			 *
+			 * @param on 是否為 daemon
+			 * @return 設定鍊 (自身物件)
+			 */
+			@Nonnull
+			public Builder withDaemon(boolean on) {
+				daemon = on;
+				return this;
+			}
+
+			/**
+			 * 指定優先權，預設為 {@link Thread#NORM_PRIORITY}。
+			 *
+			 * @param threadPriority {@link Thread#MIN_PRIORITY} 至 {@link Thread#MAX_PRIORITY}
+			 * @return 設定鍊 (自身物件)
+			 */
+			@Nonnull
+			public Builder withPriority(int threadPriority) {
+				if (threadPriority < Thread.MIN_PRIORITY || threadPriority > Thread.MAX_PRIORITY) {
+					throw new IllegalArgumentException("Priority must be between "
+						+ Thread.MIN_PRIORITY + " and " + Thread.MAX_PRIORITY + ".");
+				}
+				priority = threadPriority;
+				return this;
+			}
+
+			/**
+			 * 指定堆疊大小，預設為 0 (JVM 預設值)。部分平台會忽略此設定。
+			 *
+			 * @param bytes 堆疊大小
+			 * @return 設定鍊 (自身物件)
+			 * @see Thread#Thread(ThreadGroup, Runnable, String, long)
+			 */
+			@Nonnull
+			public Builder withStackSize(long bytes) {
+				if (bytes < 0) {
+					throw new IllegalArgumentException("Stack size must not be negative.");
+				}
+				stackSize = bytes;
+				return this;
+			}
+
+			/**
+			 * 指定未捕捉例外的處理方式，預設使用 ThreadGroup 的處理方式。
+			 *
+			 * @param uncaughtExceptionHandler 處理方式，null 表示使用預設
+			 * @return 設定鍊 (自身物件)
+			 */
+			@Nonnull
+			public Builder withUncaughtExceptionHandler(
+				@Nullable Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+				handler = uncaughtExceptionHandler;
+				return this;
+			}
+
+			/**
+			 * 指定新執行緒執行第一個工作前的暖機動作，例如預先建立 ThreadLocal 的緩衝區。
+			 * 暖機動作丟出例外時執行緒會結束。
+			 *
+			 * @param action 暖機動作，null 表示不需要
+			 * @return 設定鍊 (自身物件)
+			 */
+			@Nonnull
+			public Builder withWarmup(@Nullable Runnable action) {
+				warmup = action;
+				return this;
+			}
+
+			/**
+			 * 建議新執行緒只在指定的 CPU 上執行，例如讓延遲敏感的執行緒池與批次處理的執行緒池分開。
+			 * 只在 Linux 上以 taskset 設定，其他平台或設定失敗時忽略，每個執行緒啟動時會多花數毫秒。
+			 *
+			 * @param cpus CPU 編號，不傳入表示不限制
+			 * @return 設定鍊 (自身物件)
+			 */
+			@Nonnull
+			public Builder withCpuAffinity(@Nonnull int... cpus) {
+				if (cpus.length == 0) {
+					cpuList = null;
+					return this;
+				}
+				StringBuilder sb = new StringBuilder();
+				for (int cpu : cpus) {
+					if (cpu < 0) {
+						throw new IllegalArgumentException("CPU number must not be negative.");
+					}
+					if (sb.length() > 0) {
+						sb.append(',');
+					}
+					sb.append(cpu);
+				}
+				cpuList = sb.toString();
+				return this;
+			}
+
+			/**
+			 * @return 依目前設定建立的執行緒工廠
+			 */
+			@Nonnull
+			public NamingThreadFactory build() {
+				return new NamingThreadFactory(this);
+			}
+		}
+	}
+
+	/**
+	 * 把目前的執行緒限制在指定的 CPU 上。Java 無法直接設定，因此在 Linux 上以 taskset 設定。
+	 *
+	 * @param cpuList 以逗號分隔的 CPU 編號
+	 * @return 是否設定成功
+	 */
+	static boolean pinCurrentThread(@Nonnull String cpuList) {
+		if (!IS_LINUX) {
+			return false;
+		}
+		try {
+			// /proc/thread-self 指向 <pid>/task/<tid>
+			String tid = Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString();
+			Process process = new ProcessBuilder("taskset", "-p", "-c", cpuList, tid)
+				.redirectErrorStream(true)
+				.redirectOutput(new File("/dev/null"))
+				.start();
+			if (process.waitFor() == 0) {
+				return true;
+			}
+			LOG.debug("taskset exited with {} for thread {}.", process.exitValue(), Thread.currentThread().getName());
+		} catch (IOException | RuntimeException ex) {
+			LOG.debug("Cannot set CPU affinity for thread {}.", Thread.currentThread().getName(), ex);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	/**
+	 * 可自訂命名規則的 {@link ForkJoinPool} 執行緒工廠。
+	 */
+	public static class NamingForkJoinWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+		private final NamingThreadFactory naming;
+
+		/**
+		 * 設定新執行緒的命名規則。命名規則中可傳入 %d 作為唯一流水編號。
+		 *
+		 * @param nameFormat 新執行緒的命名規則
+		 * @see NamingThreadFactory#NamingThreadFactory(String)
+		 */
+		public NamingForkJoinWorkerThreadFactory(@Nonnull String nameFormat) {
+			naming = new NamingThreadFactory(nameFormat);
+		}
+
+		@Override
+		public ForkJoinWorkerThread newThread(@Nonnull ForkJoinPool pool) {
+			ForkJoinWorkerThread t = new ForkJoinWorkerThread(pool) {
+			};
+			t.setName(naming.getThreadName());
+			return t;
+		}
 	}
 
 	/**
@@ -75,6 +367,24 @@ public final class ExecutorUtil {
 		);
 	}
 
+	/**
+	 * 建立記錄統計資料的執行緒池。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param nThreads 池中保留執行緒數
+	 * @param metrics 統計資料，只能用於一個執行緒池
+	 * @return 新執行緒池
+	 * @see #newFixedThreadPool(String, int)
+	 */
+	@Nonnull
+	public static ExecutorService newFixedThreadPool(@Nonnull String namingFormat,
+	                                                 int nThreads,
+	                                                 @Nonnull ExecutorMetrics metrics) {
+		return new InstrumentedThreadPoolExecutor(
+			nThreads, new NamingThreadFactory(namingFormat), metrics
+		);
+	}
+
 	/**
 	 * 建立新的執行緒池。
 	 *
@@ -132,4 +442,374 @@ public final class ExecutorUtil {
 			corePoolSize, new NamingThreadFactory(namingFormat)
 		);
 	}
+
+	/**
+	 * 建立記錄統計資料的排程執行緒池。等待時間為工作超過預定時間多久才開始執行。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param corePoolSize 池中保留執行緒數
+	 * @param metrics 統計資料，只能用於一個執行緒池
+	 * @return 新執行緒池
+	 * @see #newScheduledThreadPool(String, int)
+	 */
+	@Nonnull
+	public static ScheduledExecutorService newScheduledThreadPool(@Nonnull String namingFormat,
+	                                                              int corePoolSize,
+	                                                              @Nonnull ExecutorMetrics metrics) {
+		return new InstrumentedScheduledThreadPoolExecutor(
+			corePoolSize, new NamingThreadFactory(namingFormat), metrics
+		);
+	}
+
+	/**
+	 * 建立以 hashed timing wheel 排程的執行緒池，適合大量短時間的逾時計時。
+	 * 排程及取消為 O(1)，取消的工作會立即移除；時間精確度為一個 tick。
+	 * 每格 512 個 tick。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param tick 每個 tick 的時間
+	 * @param unit 時間單位
+	 * @param workers 執行到期工作的執行緒數
+	 * @return 新執行緒池
+	 * @see #newTimingWheelScheduler(String, long, TimeUnit, int, int)
+	 */
+	@Nonnull
+	public static ScheduledExecutorService newTimingWheelScheduler(@Nonnull String namingFormat,
+	                                                               long tick, @Nonnull TimeUnit unit,
+	                                                               int workers) {
+		return newTimingWheelScheduler(namingFormat, tick, unit, 512, workers);
+	}
+
+	/**
+	 * 建立以 hashed timing wheel 排程的執行緒池。除了執行到期工作的執行緒外，另有一個 ticker 執行緒。
+	 * 延遲超過一圈 (tick × ticksPerWheel) 的工作每圈多檢查一次，
+	 * 因此 ticksPerWheel 宜涵蓋大部分工作的延遲時間。
+	 * 呼叫 shutdown 後尚未到期的工作會被取消。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param tick 每個 tick 的時間
+	 * @param unit 時間單位
+	 * @param ticksPerWheel 每圈的 tick 數，會調整為 2 的次方
+	 * @param workers 執行到期工作的執行緒數
+	 * @return 新執行緒池
+	 */
+	@Nonnull
+	public static ScheduledExecutorService newTimingWheelScheduler(@Nonnull String namingFormat,
+	                                                               long tick, @Nonnull TimeUnit unit,
+	                                                               int ticksPerWheel, int workers) {
+		return new TimingWheelScheduler(
+			new NamingThreadFactory(namingFormat), tick, unit, ticksPerWheel, workers
+		);
+	}
+
+	/**
+	 * 建立依負載在 min 與 max 之間自動調整大小的執行緒池。
+	 * 每 100 毫秒調整一次，目標佇列等待時間為 10 毫秒。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param minSize 最少執行緒數
+	 * @param maxSize 最多執行緒數
+	 * @return 新執行緒池
+	 * @see #newElasticThreadPool(String, int, int, long, long, TimeUnit)
+	 */
+	@Nonnull
+	public static ElasticThreadPool newElasticThreadPool(@Nonnull String namingFormat,
+	                                                     int minSize, int maxSize) {
+		return newElasticThreadPool(namingFormat, minSize, maxSize, 10, 100, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 建立依負載在 min 與 max 之間自動調整大小的執行緒池。
+	 * 固定大小的執行緒池遇到突發流量時工作會在佇列中累積，cached 執行緒池則可能建立過多執行緒，
+	 * 此執行緒池依佇列等待時間及處理量逐步增減執行緒。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param minSize 最少執行緒數
+	 * @param maxSize 最多執行緒數
+	 * @param targetWait 目標佇列等待時間
+	 * @param interval 調整間隔
+	 * @param unit 時間單位
+	 * @return 新執行緒池
+	 * @see ElasticThreadPool
+	 */
+	@Nonnull
+	public static ElasticThreadPool newElasticThreadPool(@Nonnull String namingFormat,
+	                                                     int minSize, int maxSize,
+	                                                     long targetWait, long interval,
+	                                                     @Nonnull TimeUnit unit) {
+		return new ElasticThreadPool(
+			new NamingThreadFactory(namingFormat), minSize, maxSize, targetWait, interval, unit
+		);
+	}
+
+	/**
+	 * 建立支援 work stealing 的執行緒池。每個執行緒有自己的工作佇列，閒置時從其他執行緒的佇列取得工作，
+	 * 大量細小工作時不會集中競爭同一個佇列。工作依提交順序 (FIFO) 執行。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param parallelism 執行緒數
+	 * @return 新執行緒池
+	 */
+	@Nonnull
+	public static ForkJoinPool newWorkStealingPool(@Nonnull String namingFormat,
+	                                               int parallelism) {
+		return new ForkJoinPool(
+			parallelism, new NamingForkJoinWorkerThreadFactory(namingFormat), null, true
+		);
+	}
+
+	/**
+	 * @return 執行環境是否支援 virtual thread (Java 21 以上)
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * 建立每個工作各用一個 virtual thread 的執行緒池，適合大量等待 I/O 的工作。
+	 * 執行環境不支援 virtual thread 時改用 {@link #newCachedThreadPool(String)}。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @return 新執行緒池
+	 * @see #isVirtualThreadSupported()
+	 */
+	@Nonnull
+	public static ExecutorService newVirtualThreadExecutor(@Nonnull String namingFormat) {
+		ExecutorService executor = newThreadPerTaskExecutor(namingFormat);
+		return executor != null ? executor : newCachedThreadPool(namingFormat);
+	}
+
+	/**
+	 * 建立每個工作各用一個 virtual thread 的執行緒池，同時執行的工作數不超過 maxConcurrency，
+	 * 超過的工作在自己的 virtual thread 中等待，例如限制同時開啟的檔案數。
+	 * 執行環境不支援 virtual thread 時改用最多 maxConcurrency 個執行緒、閒置時會回收的執行緒池。
+	 *
+	 * @param namingFormat 執行緒命名規則，可傳入 %d 作為唯一流水編號
+	 * @param maxConcurrency 同時執行的工作數上限
+	 * @return 新執行緒池
+	 * @see #isVirtualThreadSupported()
+	 */
+	@Nonnull
+	public static ExecutorService newVirtualThreadExecutor(@Nonnull String namingFormat,
+	                                                       int maxConcurrency) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Max concurrency must be positive.");
+		}
+		ExecutorService executor = newThreadPerTaskExecutor(namingFormat);
+		if (executor != null) {
+			return new LimitedExecutorService(executor, maxConcurrency);
+		}
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(
+			maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new NamingThreadFactory(namingFormat)
+		);
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	@Nullable
+	private static ExecutorService newThreadPerTaskExecutor(@Nonnull String namingFormat) {
+		if (OF_VIRTUAL == null) {
+			return null;
+		}
+		try {
+			ThreadFactory virtual = (ThreadFactory) BUILDER_FACTORY.invoke(OF_VIRTUAL.invoke(null));
+			return (ExecutorService) NEW_THREAD_PER_TASK.invoke(null, new VirtualThreadFactory(virtual, namingFormat));
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Failed to create virtual thread executor.", ex);
+		}
+	}
+
+	/**
+	 * 以 {@link NamingThreadFactory} 的規則命名 virtual thread。
+	 */
+	private static final class VirtualThreadFactory implements ThreadFactory {
+		private final ThreadFactory virtual;
+		private final NamingThreadFactory naming;
+
+		VirtualThreadFactory(@Nonnull ThreadFactory virtual, @Nonnull String nameFormat) {
+			this.virtual = virtual;
+			naming = new NamingThreadFactory(nameFormat);
+		}
+
+		@Override
+		public Thread newThread(@Nonnull Runnable r) {
+			Thread t = virtual.newThread(r);
+			t.setName(naming.getThreadName());
+			return t;
+		}
+	}
+
+	/**
+	 * 限制同時執行的工作數。工作交給 delegate 後才等待許可，等待時只佔用 delegate 的執行緒。
+	 */
+	private static final class LimitedExecutorService extends AbstractExecutorService {
+		private final ExecutorService delegate;
+		private final Semaphore permits;
+
+		LimitedExecutorService(@Nonnull ExecutorService delegate, int maxConcurrency) {
+			this.delegate = delegate;
+			permits = new Semaphore(maxConcurrency);
+		}
+
+		@Override
+		public void execute(@Nonnull final Runnable command) {
+			delegate.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						permits.acquire();
+					} catch (InterruptedException ex) {
+						// shutdownNow 時仍在等待的工作直接放棄
+						Thread.currentThread().interrupt();
+						return;
+					}
+					try {
+						command.run();
+					} finally {
+						permits.release();
+					}
+				}
+			});
+		}
+
+		@Override
+		public void shutdown() {
+			delegate.shutdown();
+		}
+
+		@Nonnull
+		@Override
+		public List<Runnable> shutdownNow() {
+			return delegate.shutdownNow();
+		}
+
+		@Override
+		public boolean isShutdown() {
+			return delegate.isShutdown();
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return delegate.isTerminated();
+		}
+
+		@Override
+		public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+			return delegate.awaitTermination(timeout, unit);
+		}
+	}
+
+	/**
+	 * 記錄提交時間的工作。
+	 */
+	private static final class Timed implements Runnable {
+		final Runnable task;
+		final long submitted = System.nanoTime();
+
+		Timed(@Nonnull Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			task.run();
+		}
+	}
+
+	/**
+	 * 記錄統計資料後再交給原本的處理方式。
+	 */
+	private static final class CountingRejectedHandler implements RejectedExecutionHandler {
+		private final ExecutorMetrics metrics;
+		private final RejectedExecutionHandler handler = new ThreadPoolExecutor.AbortPolicy();
+
+		CountingRejectedHandler(@Nonnull ExecutorMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		@Override
+		public void rejectedExecution(@Nonnull Runnable r, @Nonnull ThreadPoolExecutor executor) {
+			metrics.rejected(r instanceof Timed ? ((Timed) r).task : r);
+			handler.rejectedExecution(r, executor);
+		}
+	}
+
+	/**
+	 * 記錄統計資料的固定大小執行緒池。大小可由 {@link #setCorePoolSize} 及 {@link #setMaximumPoolSize} 調整。
+	 *
+	 * @see ElasticThreadPool
+	 */
+	static final class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+		private final ExecutorMetrics metrics;
+
+		InstrumentedThreadPoolExecutor(int nThreads, @Nonnull ThreadFactory threadFactory,
+		                               @Nonnull ExecutorMetrics metrics) {
+			super(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+				threadFactory, new CountingRejectedHandler(metrics));
+			this.metrics = metrics;
+			metrics.attach(this);
+		}
+
+		@Override
+		public void execute(@Nonnull Runnable command) {
+			super.execute(new Timed(command));
+		}
+
+		@Override
+		protected void beforeExecute(Thread t, Runnable r) {
+			metrics.beforeExecute(System.nanoTime() - ((Timed) r).submitted);
+		}
+
+		/**
+		 * @return 佇列最前面的工作已等待的奈秒數，佇列為空時為 0
+		 */
+		long oldestWaitNanos() {
+			Runnable head = getQueue().peek();
+			return head == null ? 0 : System.nanoTime() - ((Timed) head).submitted;
+		}
+
+		@Override
+		protected void afterExecute(Runnable r, Throwable t) {
+			metrics.afterExecute(((Timed) r).task, t);
+		}
+
+		@Nonnull
+		@Override
+		public List<Runnable> shutdownNow() {
+			List<Runnable> timed = super.shutdownNow();
+			List<Runnable> tasks = new ArrayList<>(timed.size());
+			for (Runnable r : timed) {
+				tasks.add(((Timed) r).task);
+			}
+			return tasks;
+		}
+	}
+
+	/**
+	 * 記錄統計資料的排程執行緒池。
+	 */
+	private static final class InstrumentedScheduledThreadPoolExecutor extends ScheduledThreadPoolExecutor {
+		private final ExecutorMetrics metrics;
+
+		InstrumentedScheduledThreadPoolExecutor(int corePoolSize, @Nonnull ThreadFactory threadFactory,
+		                                        @Nonnull ExecutorMetrics metrics) {
+			super(corePoolSize, threadFactory, new CountingRejectedHandler(metrics));
+			this.metrics = metrics;
+			metrics.attach(this);
+		}
+
+		@Override
+		protected void beforeExecute(Thread t, Runnable r) {
+			long late = r instanceof RunnableScheduledFuture
+				? -((RunnableScheduledFuture<?>) r).getDelay(TimeUnit.NANOSECONDS)
+				: 0;
+			metrics.beforeExecute(late);
+		}
+
+		@Override
+		protected void afterExecute(Runnable r, Throwable t) {
+			metrics.afterExecute(r, t);
+		}
+	}
 }
@@ -1,12 +1,43 @@
 package org.newstudio.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.annotation.Nonnull;
-import java.io.*;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
 
 public final class FileUtil {
+	private static final Logger LOG = LoggerFactory.getLogger(FileUtil.class);
+
+	private static final SizeFormat SIZE_FORMAT = SizeFormat.of(SizeFormat.Base.JEDEC, 2);
+	private static volatile LocalizedFormat kilobyteFormat =
+		LocalizedFormat.kilobyte(Locale.getDefault(Locale.Category.FORMAT));
+
+	private static final ThreadLocal<ByteBuffer> CHECKSUM_BUFFER = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(256 << 10);
+		}
+	};
+
 	/**
 	 * Util 類別不允許直接初始化。
 	 */
@@ -15,7 +46,7 @@ public final class FileUtil {
 	}
 
 	/**
-	 * 把 byte 數字格式化成 KB 字串，保證小數點兩位。
+	 * 把 byte 數字格式化成 KB 字串，保證小數點兩位。小數點及數字字元依預設的 Locale 而定。
 	 *
 	 * @param value 檔案大小 (byte)
 	 * @return KB 字串 (保證小數點兩位)
@@ -25,12 +56,25 @@ public final class FileUtil {
 			throw new IllegalArgumentException("Value must be positive.");
 		}
 
-		double Size = (double) value / 1024;
-		NumberFormat formatter = DecimalFormat.getInstance();
-		formatter.setMaximumFractionDigits(2);
-		formatter.setMinimumFractionDigits(2);
-		formatter.setGroupingUsed(false);
-		return formatter.format(Size);
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		LocalizedFormat kilobyte = kilobyteFormat;
+		if (!locale.equals(kilobyte.locale)) {
+			kilobyte = LocalizedFormat.kilobyte(locale);
+			kilobyteFormat = kilobyte;
+		}
+		return kilobyte.format.format(value);
+	}
+
+	/**
+	 * 把 byte 數字格式化成自動選擇單位的字串，以 1024 進位，保證小數點兩位，例如 "1.50 MB"。
+	 *
+	 * @param value 檔案大小 (byte)
+	 * @return 大小字串
+	 * @see SizeFormat
+	 */
+	@Nonnull
+	public static String formatSize(long value) {
+		return SIZE_FORMAT.format(value);
 	}
 
 	/**
@@ -58,24 +102,375 @@ public final class FileUtil {
 		Objects.requireNonNull(srcFile, "The source is null.");
 		Objects.requireNonNull(destFile, "The destination is null.");
 
-		boolean result = true;
 		try {
-			InputStream in = new FileInputStream(srcFile);
-			OutputStream out = new FileOutputStream(destFile);
+			copyFile(srcFile.toPath(), destFile.toPath());
+			return true;
+		} catch (IOException | InvalidPathException ex) {
+			LOG.warn("Failed to copy {} to {}.", srcFile, destFile, ex);
+			return false;
+		}
+	}
+
+	/**
+	 * 複製檔案，依檔案大小自動選擇複製方式。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @return 複製結果
+	 * @throws IOException 複製失敗
+	 * @see CopyStrategy#AUTO
+	 */
+	@Nonnull
+	public static CopyResult copyFile(@Nonnull Path src, @Nonnull Path dest) throws IOException {
+		return copyFile(src, dest, CopyStrategy.AUTO);
+	}
+
+	/**
+	 * 以指定的方式複製檔案，並將目的檔最後修改時間設成與來源檔相同。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @param strategy 複製方式
+	 * @return 複製結果
+	 * @throws IOException 複製失敗，或來源與目的是同一個檔案
+	 */
+	@Nonnull
+	public static CopyResult copyFile(@Nonnull Path src, @Nonnull Path dest, @Nonnull CopyStrategy strategy)
+			throws IOException {
+		return doCopyFile(src, dest, strategy, null);
+	}
+
+	/**
+	 * 以指定的方式限速複製檔案，並將目的檔最後修改時間設成與來源檔相同。
+	 * 同一個頻寬限制器可由多個同時進行的複製共用，總速率不超過其上限。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @param strategy 複製方式
+	 * @param limiter 頻寬限制器
+	 * @return 複製結果
+	 * @throws IOException 複製失敗，或來源與目的是同一個檔案
+	 */
+	@Nonnull
+	public static CopyResult copyFile(@Nonnull Path src, @Nonnull Path dest, @Nonnull CopyStrategy strategy,
+	                                  @Nonnull BandwidthLimiter limiter) throws IOException {
+		Objects.requireNonNull(limiter, "The limiter is null.");
+
+		return doCopyFile(src, dest, strategy, limiter);
+	}
+
+	@Nonnull
+	static CopyResult doCopyFile(@Nonnull Path src, @Nonnull Path dest, @Nonnull CopyStrategy strategy,
+	                             @Nullable BandwidthLimiter limiter) throws IOException {
+		Objects.requireNonNull(src, "The source is null.");
+		Objects.requireNonNull(dest, "The destination is null.");
+		Objects.requireNonNull(strategy, "The strategy is null.");
+		if (Files.exists(dest) && Files.isSameFile(src, dest)) {
+			throw new IOException("The source and destination are the same file: " + src);
+		}
+
+		long start = System.nanoTime();
+		long bytes;
+		CopyStrategy resolved;
+		try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ);
+		     FileChannel out = FileChannel.open(dest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				     StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = in.size();
+			resolved = strategy.resolve(size);
+			bytes = resolved.transfer(in, out, 0, size, limiter);
+		}
+
+		// 將檔案最後修改時間設成與來源檔相同
+		Files.setLastModifiedTime(dest, Files.getLastModifiedTime(src));
+		return new CopyResult(bytes, System.nanoTime() - start, resolved);
+	}
 
-			byte[] buf = new byte[1024];
-			int len;
-			while ((len = in.read(buf)) > 0) {
-				out.write(buf, 0, len);
+	/**
+	 * 以預設設定平行複製目錄。
+	 *
+	 * @param src 來源目錄或檔案
+	 * @param dest 目的位置
+	 * @return 複製結果
+	 * @throws IOException 走訪目錄失敗
+	 * @see #copyTree(Path, Path, TreeCopyOptions)
+	 */
+	@Nonnull
+	public static TreeCopyResult copyTree(@Nonnull Path src, @Nonnull Path dest) throws IOException {
+		return copyTree(src, dest, new TreeCopyOptions());
+	}
+
+	/**
+	 * 平行複製目錄，不存在的目錄會自動建立，符號連結只複製連結本身。
+	 * 個別檔案的失敗不會中斷複製，而是記錄在結果中。
+	 *
+	 * @param src 來源目錄或檔案
+	 * @param dest 目的位置
+	 * @param options 複製設定
+	 * @return 複製結果
+	 * @throws IOException 走訪目錄失敗
+	 */
+	@Nonnull
+	public static TreeCopyResult copyTree(@Nonnull Path src, @Nonnull Path dest, @Nonnull TreeCopyOptions options)
+			throws IOException {
+		Objects.requireNonNull(src, "The source is null.");
+		Objects.requireNonNull(dest, "The destination is null.");
+		Objects.requireNonNull(options, "The options is null.");
+
+		return new TreeCopier(src, dest, options).run();
+	}
+
+	/**
+	 * 非同步複製檔案。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @param executor 執行讀寫及完成通知的執行緒池，須依阻塞的檔案 I/O 配置大小
+	 * @return 複製結果
+	 * @throws IOException 無法開啟檔案，或來源與目的是同一個檔案
+	 * @see #copyAsync(Path, Path, ExecutorService, CopyListener)
+	 */
+	@Nonnull
+	public static Future<CopyResult> copyAsync(@Nonnull Path src, @Nonnull Path dest,
+	                                           @Nonnull ExecutorService executor) throws IOException {
+		return copyAsync(src, dest, executor, new CopyListener() {
+		});
+	}
+
+	/**
+	 * 以 {@link java.nio.channels.AsynchronousFileChannel} 非同步複製檔案，並將目的檔最後修改時間設成與來源檔相同。
+	 * 呼叫端不需等待複製完成。多數平台 (包含 Linux 等 Unix) 的 AsynchronousFileChannel 是模擬的，
+	 * 讀寫在 executor 中以阻塞 I/O 執行，每個進行中的 I/O 佔用一個執行緒，
+	 * 同時進行的複製數受 executor 大小限制。
+	 * 取消時進行中的 I/O 會中止，目的檔保留已複製的部分。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @param executor 執行讀寫及完成通知的執行緒池，須依阻塞的檔案 I/O 配置大小
+	 * @param listener 進度及完成通知
+	 * @return 複製結果，複製方式為 {@link CopyStrategy#DIRECT_BUFFER}
+	 * @throws IOException 無法開啟檔案，或來源與目的是同一個檔案
+	 */
+	@Nonnull
+	public static Future<CopyResult> copyAsync(@Nonnull Path src, @Nonnull Path dest,
+	                                           @Nonnull ExecutorService executor,
+	                                           @Nonnull CopyListener listener) throws IOException {
+		Objects.requireNonNull(src, "The source is null.");
+		Objects.requireNonNull(dest, "The destination is null.");
+		Objects.requireNonNull(executor, "The executor is null.");
+		Objects.requireNonNull(listener, "The listener is null.");
+		if (Files.exists(dest) && Files.isSameFile(src, dest)) {
+			throw new IOException("The source and destination are the same file: " + src);
+		}
+
+		AsyncCopier copier = new AsyncCopier(src, dest, executor, listener);
+		copier.start();
+		return copier;
+	}
+
+	/**
+	 * 複製檔案並在同一次讀取中計算 CRC32，結果記錄到索引中。
+	 * 若索引顯示目的檔內容已與來源相同則略過；若 link 為 true 且索引中有其他內容相同的檔案，
+	 * 則改為建立指向該檔案的 hard link，無法建立時 (例如位於不同檔案系統) 才複製。
+	 * CRC32 只用來找出候選檔案，略過或連結前會逐 byte 比對內容。
+	 * 複製時先寫入同目錄的暫存檔再取代目的檔，目的檔原本是 hard link 時不會修改其他連結的內容。
+	 *
+	 * @param src 檔案位置
+	 * @param dest 目的位置，已存在時會被覆寫
+	 * @param index CRC32 索引
+	 * @param link 是否以 hard link 取代複製；連結後的檔案共用內容，修改任一個都會影響其他
+	 * @return 複製結果
+	 * @throws IOException 複製失敗，或來源與目的是同一個檔案
+	 */
+	@Nonnull
+	public static ChecksumCopyResult copyWithChecksum(@Nonnull Path src, @Nonnull Path dest,
+	                                                  @Nonnull ChecksumIndex index, boolean link) throws IOException {
+		Objects.requireNonNull(src, "The source is null.");
+		Objects.requireNonNull(dest, "The destination is null.");
+		Objects.requireNonNull(index, "The index is null.");
+		BasicFileAttributes srcAttrs = Files.readAttributes(src, BasicFileAttributes.class);
+		long checksum = index.lookup(src, srcAttrs);
+		if (Files.exists(dest) && Files.isSameFile(src, dest)) {
+			if (src.toRealPath().equals(dest.toRealPath())) {
+				throw new IOException("The source and destination are the same file: " + src);
 			}
-			in.close();
-			out.close();
+			// 目的檔是來源的 hard link
+			if (checksum == ChecksumIndex.UNKNOWN) {
+				checksum = checksum(src);
+				index.record(src, srcAttrs, checksum);
+			}
+			return new ChecksumCopyResult(ChecksumCopyResult.Action.SKIPPED, checksum, 0);
+		}
 
+		if (checksum != ChecksumIndex.UNKNOWN) {
+			// CRC32 相同不代表內容相同，略過或連結前比對內容
+			if (index.lookup(dest) == checksum && Files.size(dest) == srcAttrs.size() && sameContent(src, dest)) {
+				return new ChecksumCopyResult(ChecksumCopyResult.Action.SKIPPED, checksum, 0);
+			}
+			Path identical = link ? index.findIdentical(srcAttrs.size(), checksum, dest) : null;
+			if (identical != null && !sameContent(src, identical)) {
+				LOG.debug("CRC32 collision between {} and {}.", src, identical);
+				identical = null;
+			}
+			if (identical != null && tryLink(identical, dest)) {
+				index.record(dest, Files.readAttributes(dest, BasicFileAttributes.class), checksum);
+				return new ChecksumCopyResult(ChecksumCopyResult.Action.LINKED, checksum, 0);
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		long bytes = 0;
+		ByteBuffer buffer = CHECKSUM_BUFFER.get();
+		// 目的檔可能是先前建立的 hard link，寫入暫存檔再取代，不修改共用的內容
+		Path temp = tempSibling(dest);
+		try {
+			try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ);
+			     FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+				buffer.clear();
+				while (in.read(buffer) >= 0 || buffer.position() > 0) {
+					buffer.flip();
+					crc.update(buffer.array(), buffer.arrayOffset(), buffer.limit());
+					while (buffer.hasRemaining()) {
+						bytes += out.write(buffer);
+					}
+					buffer.clear();
+				}
+			}
 			// 將檔案最後修改時間設成與來源檔相同
-			destFile.setLastModified(srcFile.lastModified());
-		} catch (Exception ex) {
-			result = false;
+			Files.setLastModifiedTime(temp, srcAttrs.lastModifiedTime());
+			replace(temp, dest);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		checksum = crc.getValue();
+		if (bytes == srcAttrs.size()) {
+			// 複製過程中來源被修改時不記錄來源
+			index.record(src, srcAttrs, checksum);
+		}
+		index.record(dest, Files.readAttributes(dest, BasicFileAttributes.class), checksum);
+		return new ChecksumCopyResult(ChecksumCopyResult.Action.COPIED, checksum, bytes);
+	}
+
+	/**
+	 * @return 檔案內容的 CRC32
+	 */
+	private static long checksum(@Nonnull Path file) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = CHECKSUM_BUFFER.get();
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer.clear();
+			while (in.read(buffer) >= 0) {
+				crc.update(buffer.array(), buffer.arrayOffset(), buffer.position());
+				buffer.clear();
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * @return 兩個檔案的內容是否相同
+	 */
+	private static boolean sameContent(@Nonnull Path a, @Nonnull Path b) throws IOException {
+		ByteBuffer buffer = CHECKSUM_BUFFER.get();
+		int half = buffer.capacity() / 2;
+		buffer.clear().limit(half);
+		ByteBuffer left = buffer.slice();
+		buffer.limit(buffer.capacity()).position(half);
+		ByteBuffer right = buffer.slice();
+		try (FileChannel inA = FileChannel.open(a, StandardOpenOption.READ);
+		     FileChannel inB = FileChannel.open(b, StandardOpenOption.READ)) {
+			if (inA.size() != inB.size()) {
+				return false;
+			}
+			while (true) {
+				left.clear();
+				right.clear();
+				int n = readFully(inA, left);
+				if (n != readFully(inB, right)) {
+					return false;
+				}
+				if (n == 0) {
+					return true;
+				}
+				left.flip();
+				right.flip();
+				if (!left.equals(right)) {
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return 讀入的 bytes，buffer 未滿表示已到檔案結尾
+	 */
+	private static int readFully(@Nonnull FileChannel in, @Nonnull ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+		}
+		return buffer.position();
+	}
+
+	/**
+	 * @return 與 file 同目錄、尚不存在的暫存檔位置
+	 */
+	@Nonnull
+	private static Path tempSibling(@Nonnull Path file) {
+		return file.resolveSibling("." + file.getFileName() + "."
+				+ Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+	}
+
+	/**
+	 * 以 source 取代 target，檔案系統支援時為 atomic。
+	 */
+	private static void replace(@Nonnull Path source, @Nonnull Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException ex) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * @return 是否成功以 hard link 取代目的檔
+	 */
+	private static boolean tryLink(@Nonnull Path existing, @Nonnull Path dest) {
+		Path temp = tempSibling(dest);
+		try {
+			Files.createLink(temp, existing);
+			Files.move(temp, dest, StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (IOException | UnsupportedOperationException ex) {
+			LOG.debug("Cannot link {} to {}.", dest, existing, ex);
+			return false;
+		} finally {
+			try {
+				Files.deleteIfExists(temp);
+			} catch (IOException ex) {
+				LOG.debug("Cannot delete {}.", temp, ex);
+			}
+		}
+	}
+
+	/**
+	 * 綁定 Locale 的格式，預設 Locale 改變時重建。
+	 */
+	private static final class LocalizedFormat {
+		final Locale locale;
+		final SizeFormat format;
+
+		LocalizedFormat(@Nonnull Locale locale, @Nonnull SizeFormat format) {
+			this.locale = locale;
+			this.format = format;
+		}
+
+		/**
+		 * 建立固定以 KB 為單位、小數點兩位的格式，小數點及數字字元依 locale 而定。
+		 */
+		@Nonnull
+		static LocalizedFormat kilobyte(@Nonnull Locale locale) {
+			DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+			return new LocalizedFormat(locale, SizeFormat.fixed(SizeFormat.Base.JEDEC, 1, 2)
+					.withDecimalSeparator(symbols.getDecimalSeparator())
+					.withZeroDigit(symbols.getZeroDigit()));
 		}
-		return result;
 	}
 }
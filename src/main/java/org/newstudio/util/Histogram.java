@@ -0,0 +1,140 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以 2 的次方分組的直方圖。第 0 組為 0，第 i 組為 [2^(i-1), 2^i)。Thread-safe。
+ *
+ * 與 {@link StripedCounter} 相同，每個執行緒累加到不同的列，多執行緒同時記錄時不會互相競爭。
+ * 讀取時才加總，因此不是精確的瞬間值。
+ *
+ * @author Scribe Huang
+ */
+public final class Histogram {
+	/** 分組數，可涵蓋所有非負的 long。 */
+	public static final int BUCKETS = 64;
+
+	private final int mask;
+	private final AtomicLongArray cells;
+	private final StripedCounter sum = new StripedCounter();
+
+	public Histogram() {
+		int stripes = StripedCounter.stripes();
+		mask = stripes - 1;
+		cells = new AtomicLongArray(stripes * BUCKETS);
+	}
+
+	/**
+	 * 記錄一個值，負數視為 0。
+	 *
+	 * @param value 值
+	 */
+	public void record(long value) {
+		long v = Math.max(0, value);
+		cells.getAndIncrement(StripedCounter.stripe(mask) * BUCKETS + bucketOf(v));
+		sum.add(v);
+	}
+
+	/**
+	 * @param value 值
+	 * @return 值所在的組
+	 */
+	public static int bucketOf(long value) {
+		return 64 - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * @param bucket 組
+	 * @return 該組的下限 (含)
+	 */
+	public static long lowerBound(int bucket) {
+		return bucket == 0 ? 0 : 1L << (bucket - 1);
+	}
+
+	/**
+	 * @param bucket 組
+	 * @return 該組的上限 (含)
+	 */
+	public static long upperBound(int bucket) {
+		return bucket == 0 ? 0 : bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	/**
+	 * @return 各組的筆數
+	 */
+	@Nonnull
+	public long[] snapshot() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < cells.length(); i++) {
+			counts[i % BUCKETS] += cells.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return 總筆數
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < cells.length(); i++) {
+			count += cells.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * @return 所有值的總和
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * @return 平均值，沒有資料時為 0
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) getSum() / count;
+	}
+
+	/**
+	 * @param quantile 0 至 1 之間的分位數，例如 0.99
+	 * @return 該分位數所在組的上限，沒有資料時為 0
+	 */
+	public long percentile(double quantile) {
+		if (quantile < 0 || quantile > 1) {
+			throw new IllegalArgumentException("Quantile must be between 0 and 1.");
+		}
+		long[] counts = snapshot();
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0) {
+				return upperBound(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * 清除所有資料。
+	 */
+	public void reset() {
+		for (int i = 0; i < cells.length(); i++) {
+			cells.set(i, 0);
+		}
+		sum.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram(count=" + getCount() + ", mean=" + getMean() + ", p50<=" + percentile(0.5)
+				+ ", p99<=" + percentile(0.99) + ")";
+	}
+}
@@ -0,0 +1,117 @@
+package org.newstudio.util;
+
+/**
+ * 以索引比較及交換的原地排序，用來同時排序數個平行陣列而不需建立物件。
+ * Quicksort 遞迴過深時改用 heapsort，最差情況為 O(n log n)。不是穩定排序。
+ *
+ * @author Scribe Huang
+ */
+abstract class IndexedSort {
+	private static final int INSERTION_THRESHOLD = 16;
+
+	/**
+	 * @return 索引 i 的元素小於、等於或大於索引 j 時分別回傳負數、0 或正數
+	 */
+	abstract int compare(int i, int j);
+
+	abstract void swap(int i, int j);
+
+	/**
+	 * 排序 [0, n)。
+	 *
+	 * @param n 元素數
+	 */
+	final void sort(int n) {
+		if (n > 1) {
+			quickSort(0, n - 1, 2 * (32 - Integer.numberOfLeadingZeros(n)));
+		}
+	}
+
+	private void quickSort(int lo, int hi, int depth) {
+		while (hi - lo >= INSERTION_THRESHOLD) {
+			if (depth-- == 0) {
+				heapSort(lo, hi);
+				return;
+			}
+			int p = partition(lo, hi);
+			// 先處理較短的一邊，堆疊深度不超過 log n
+			if (p - lo < hi - p) {
+				quickSort(lo, p - 1, depth);
+				lo = p + 1;
+			} else {
+				quickSort(p + 1, hi, depth);
+				hi = p - 1;
+			}
+		}
+		insertionSort(lo, hi);
+	}
+
+	/**
+	 * 以三數中位數為基準分割，回傳基準的最終位置。
+	 */
+	private int partition(int lo, int hi) {
+		int mid = (lo + hi) >>> 1;
+		if (compare(mid, lo) < 0) {
+			swap(mid, lo);
+		}
+		if (compare(hi, lo) < 0) {
+			swap(hi, lo);
+		}
+		if (compare(hi, mid) < 0) {
+			swap(hi, mid);
+		}
+		// 基準移到 hi - 1，lo 及 hi 已在正確的一邊
+		swap(mid, hi - 1);
+		int pivot = hi - 1;
+		int i = lo;
+		int j = hi - 1;
+		while (true) {
+			while (compare(++i, pivot) < 0) {
+			}
+			while (compare(--j, pivot) > 0) {
+			}
+			if (i >= j) {
+				break;
+			}
+			swap(i, j);
+		}
+		swap(i, hi - 1);
+		return i;
+	}
+
+	private void insertionSort(int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			for (int j = i; j > lo && compare(j, j - 1) < 0; j--) {
+				swap(j, j - 1);
+			}
+		}
+	}
+
+	private void heapSort(int lo, int hi) {
+		int n = hi - lo + 1;
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(lo, i, n);
+		}
+		for (int end = n - 1; end > 0; end--) {
+			swap(lo, lo + end);
+			siftDown(lo, 0, end);
+		}
+	}
+
+	private void siftDown(int lo, int i, int n) {
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= n) {
+				return;
+			}
+			if (child + 1 < n && compare(lo + child + 1, lo + child) > 0) {
+				child++;
+			}
+			if (compare(lo + i, lo + child) >= 0) {
+				return;
+			}
+			swap(lo + i, lo + child);
+			i = child;
+		}
+	}
+}
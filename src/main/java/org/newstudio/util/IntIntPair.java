@@ -0,0 +1,71 @@
+// 由 src/template/PrimitivePair.java.template 產生，請修改範本後執行 ./gradlew generatePairs
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (int, int) 資料型態，不需 boxing 的 {@link Pair}。Immutable。
+ *
+ * @author Scribe Huang
+ */
+public final class IntIntPair {
+	private final int _1;
+	private final int _2;
+
+	private IntIntPair(int t1, int t2) {
+		_1 = t1;
+		_2 = t2;
+	}
+
+	@Nonnull
+	public static IntIntPair of(int t1, int t2) {
+		return new IntIntPair(t1, t2);
+	}
+
+	public int get_1() {
+		return _1;
+	}
+
+	public int get_2() {
+		return _2;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		IntIntPair pair = (IntIntPair) o;
+
+		return _1 == pair._1 && _2 == pair._2;
+	}
+
+	@Override
+	public int hashCode() {
+		return PairHash.hash(_1, _2);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + _1 + ", " + _2 + ")";
+	}
+
+	/**
+	 * 對調元素。
+	 * 第一個變第二個，第二個變第一個。
+	 *
+	 * @return 對調後 Pair
+	 */
+	@Nonnull
+	public IntIntPair swap() {
+		return IntIntPair.of(_2, _1);
+	}
+
+	/**
+	 * @return 相同內容的 {@link Pair}
+	 */
+	@Nonnull
+	public Pair<Integer, Integer> toPair() {
+		return Pair.of(_1, _2);
+	}
+}
@@ -0,0 +1,243 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Delphi TDateTime 及 Windows FILETIME 的批次轉換。
+ *
+ * 每次轉換 min(來源剩餘, 目的剩餘) 筆資料並前移兩者的 position，可反覆呼叫以串流處理。
+ * 轉換過程不建立任何物件，時區偏移量每批只取一次。
+ * ByteBuffer 版本以 little-endian 讀寫 (Delphi 及 Windows 的格式)，可直接傳入 MappedByteBuffer。
+ *
+ * @author Scribe Huang
+ * @see DateUtil#delphiTimeToJavaTime(double)
+ * @see DateUtil#fileTimeToJavaTime(long)
+ */
+public final class LegacyTimeCodec {
+	/**
+	 * Util 類別不允許直接初始化。
+	 */
+	private LegacyTimeCodec() {
+		throw new UnsupportedOperationException("LegacyTimeCodec class cannot be initiated directly.");
+	}
+
+	/**
+	 * Delphi 時間轉 epoch 毫秒，使用目前的時區偏移量。
+	 *
+	 * @param src Delphi 時間
+	 * @param dst epoch 毫秒
+	 * @return 轉換筆數
+	 */
+	public static int delphiToMillis(@Nonnull DoubleBuffer src, @Nonnull LongBuffer dst) {
+		return delphiToMillis(src, dst, DateUtil.timeZoneOffsetMillis());
+	}
+
+	/**
+	 * Delphi 時間轉 epoch 毫秒。
+	 *
+	 * @param src Delphi 時間
+	 * @param dst epoch 毫秒
+	 * @param offsetMillis Delphi 時間的時區偏移毫秒數
+	 * @return 轉換筆數
+	 */
+	public static int delphiToMillis(@Nonnull DoubleBuffer src, @Nonnull LongBuffer dst, int offsetMillis) {
+		int count = Math.min(src.remaining(), dst.remaining());
+		if (src.hasArray() && dst.hasArray()) {
+			double[] in = src.array();
+			long[] out = dst.array();
+			int i = src.arrayOffset() + src.position();
+			int o = dst.arrayOffset() + dst.position();
+			for (int n = 0; n < count; n++) {
+				out[o + n] = DateUtil.Millis.fromDelphiTime(in[i + n], offsetMillis);
+			}
+			src.position(src.position() + count);
+			dst.position(dst.position() + count);
+		} else {
+			for (int n = 0; n < count; n++) {
+				dst.put(DateUtil.Millis.fromDelphiTime(src.get(), offsetMillis));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * little-endian 的 Delphi 時間轉 epoch 毫秒，使用目前的時區偏移量。
+	 *
+	 * @param src 每筆 8 bytes 的 Delphi 時間，不足 8 bytes 的部分保留不處理
+	 * @param dst epoch 毫秒
+	 * @return 轉換筆數
+	 */
+	public static int delphiToMillis(@Nonnull ByteBuffer src, @Nonnull LongBuffer dst) {
+		return delphiToMillis(src, dst, DateUtil.timeZoneOffsetMillis());
+	}
+
+	/**
+	 * little-endian 的 Delphi 時間轉 epoch 毫秒。
+	 *
+	 * @param src 每筆 8 bytes 的 Delphi 時間，不足 8 bytes 的部分保留不處理
+	 * @param dst epoch 毫秒
+	 * @param offsetMillis Delphi 時間的時區偏移毫秒數
+	 * @return 轉換筆數
+	 */
+	public static int delphiToMillis(@Nonnull ByteBuffer src, @Nonnull LongBuffer dst, int offsetMillis) {
+		int count = delphiToMillis(littleEndian(src).asDoubleBuffer(), dst, offsetMillis);
+		src.position(src.position() + count * 8);
+		return count;
+	}
+
+	/**
+	 * epoch 毫秒轉 Delphi 時間，使用目前的時區偏移量。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst Delphi 時間
+	 * @return 轉換筆數
+	 */
+	public static int millisToDelphi(@Nonnull LongBuffer src, @Nonnull DoubleBuffer dst) {
+		return millisToDelphi(src, dst, DateUtil.timeZoneOffsetMillis());
+	}
+
+	/**
+	 * epoch 毫秒轉 Delphi 時間。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst Delphi 時間
+	 * @param offsetMillis Delphi 時間的時區偏移毫秒數
+	 * @return 轉換筆數
+	 */
+	public static int millisToDelphi(@Nonnull LongBuffer src, @Nonnull DoubleBuffer dst, int offsetMillis) {
+		int count = Math.min(src.remaining(), dst.remaining());
+		if (src.hasArray() && dst.hasArray()) {
+			long[] in = src.array();
+			double[] out = dst.array();
+			int i = src.arrayOffset() + src.position();
+			int o = dst.arrayOffset() + dst.position();
+			for (int n = 0; n < count; n++) {
+				out[o + n] = DateUtil.Millis.toDelphiTime(in[i + n], offsetMillis);
+			}
+			src.position(src.position() + count);
+			dst.position(dst.position() + count);
+		} else {
+			for (int n = 0; n < count; n++) {
+				dst.put(DateUtil.Millis.toDelphiTime(src.get(), offsetMillis));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * epoch 毫秒轉 little-endian 的 Delphi 時間，使用目前的時區偏移量。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst 每筆 8 bytes 的 Delphi 時間
+	 * @return 轉換筆數
+	 */
+	public static int millisToDelphi(@Nonnull LongBuffer src, @Nonnull ByteBuffer dst) {
+		return millisToDelphi(src, dst, DateUtil.timeZoneOffsetMillis());
+	}
+
+	/**
+	 * epoch 毫秒轉 little-endian 的 Delphi 時間。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst 每筆 8 bytes 的 Delphi 時間
+	 * @param offsetMillis Delphi 時間的時區偏移毫秒數
+	 * @return 轉換筆數
+	 */
+	public static int millisToDelphi(@Nonnull LongBuffer src, @Nonnull ByteBuffer dst, int offsetMillis) {
+		int count = millisToDelphi(src, littleEndian(dst).asDoubleBuffer(), offsetMillis);
+		dst.position(dst.position() + count * 8);
+		return count;
+	}
+
+	/**
+	 * 檔案時間轉 epoch 毫秒。
+	 *
+	 * @param src 檔案時間
+	 * @param dst epoch 毫秒，可與 src 共用同一個陣列
+	 * @return 轉換筆數
+	 */
+	public static int fileTimeToMillis(@Nonnull LongBuffer src, @Nonnull LongBuffer dst) {
+		int count = Math.min(src.remaining(), dst.remaining());
+		if (src.hasArray() && dst.hasArray()) {
+			long[] in = src.array();
+			long[] out = dst.array();
+			int i = src.arrayOffset() + src.position();
+			int o = dst.arrayOffset() + dst.position();
+			for (int n = 0; n < count; n++) {
+				out[o + n] = DateUtil.Millis.fromFileTime(in[i + n]);
+			}
+			src.position(src.position() + count);
+			dst.position(dst.position() + count);
+		} else {
+			for (int n = 0; n < count; n++) {
+				dst.put(DateUtil.Millis.fromFileTime(src.get()));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * little-endian 的檔案時間轉 epoch 毫秒。
+	 *
+	 * @param src 每筆 8 bytes 的檔案時間，不足 8 bytes 的部分保留不處理
+	 * @param dst epoch 毫秒
+	 * @return 轉換筆數
+	 */
+	public static int fileTimeToMillis(@Nonnull ByteBuffer src, @Nonnull LongBuffer dst) {
+		int count = fileTimeToMillis(littleEndian(src).asLongBuffer(), dst);
+		src.position(src.position() + count * 8);
+		return count;
+	}
+
+	/**
+	 * epoch 毫秒轉檔案時間。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst 檔案時間，可與 src 共用同一個陣列
+	 * @return 轉換筆數
+	 */
+	public static int millisToFileTime(@Nonnull LongBuffer src, @Nonnull LongBuffer dst) {
+		int count = Math.min(src.remaining(), dst.remaining());
+		if (src.hasArray() && dst.hasArray()) {
+			long[] in = src.array();
+			long[] out = dst.array();
+			int i = src.arrayOffset() + src.position();
+			int o = dst.arrayOffset() + dst.position();
+			for (int n = 0; n < count; n++) {
+				out[o + n] = DateUtil.Millis.toFileTime(in[i + n]);
+			}
+			src.position(src.position() + count);
+			dst.position(dst.position() + count);
+		} else {
+			for (int n = 0; n < count; n++) {
+				dst.put(DateUtil.Millis.toFileTime(src.get()));
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * epoch 毫秒轉 little-endian 的檔案時間。
+	 *
+	 * @param src epoch 毫秒
+	 * @param dst 每筆 8 bytes 的檔案時間
+	 * @return 轉換筆數
+	 */
+	public static int millisToFileTime(@Nonnull LongBuffer src, @Nonnull ByteBuffer dst) {
+		int count = millisToFileTime(src, littleEndian(dst).asLongBuffer());
+		dst.position(dst.position() + count * 8);
+		return count;
+	}
+
+	/**
+	 * @return 與 buffer 共用內容的 little-endian 檢視，不影響原本 buffer 的 byte order
+	 */
+	@Nonnull
+	private static ByteBuffer littleEndian(@Nonnull ByteBuffer buffer) {
+		return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
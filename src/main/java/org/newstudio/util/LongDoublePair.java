@@ -0,0 +1,71 @@
+// 由 src/template/PrimitivePair.java.template 產生，請修改範本後執行 ./gradlew generatePairs
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+
+/**
+ * (long, double) 資料型態，不需 boxing 的 {@link Pair}。Immutable。
+ *
+ * @author Scribe Huang
+ */
+public final class LongDoublePair {
+	private final long _1;
+	private final double _2;
+
+	private LongDoublePair(long t1, double t2) {
+		_1 = t1;
+		_2 = t2;
+	}
+
+	@Nonnull
+	public static LongDoublePair of(long t1, double t2) {
+		return new LongDoublePair(t1, t2);
+	}
+
+	public long get_1() {
+		return _1;
+	}
+
+	public double get_2() {
+		return _2;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		LongDoublePair pair = (LongDoublePair) o;
+
+		return _1 == pair._1 && Double.doubleToLongBits(_2) == Double.doubleToLongBits(pair._2);
+	}
+
+	@Override
+	public int hashCode() {
+		return PairHash.hash(_1, Double.doubleToLongBits(_2));
+	}
+
+	@Override
+	public String toString() {
+		return "(" + _1 + ", " + _2 + ")";
+	}
+
+	/**
+	 * 對調元素。
+	 * 第一個變第二個，第二個變第一個。
+	 *
+	 * @return 對調後 Pair
+	 */
+	@Nonnull
+	public DoubleLongPair swap() {
+		return DoubleLongPair.of(_2, _1);
+	}
+
+	/**
+	 * @return 相同內容的 {@link Pair}
+	 */
+	@Nonnull
+	public Pair<Long, Double> toPair() {
+		return Pair.of(_1, _2);
+	}
+}
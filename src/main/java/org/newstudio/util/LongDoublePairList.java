@@ -0,0 +1,308 @@
+// 由 src/template/PrimitivePairList.java.template 產生，請修改範本後執行 ./gradlew generatePairs
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * (long, double) 的串列。兩個元素分別存在兩個 primitive 陣列中 (struct of arrays)，
+ * 不需為每一對建立物件，適合存放大量的 pair。Not thread-safe。
+ *
+ * @author Scribe Huang
+ * @see LongDoublePair
+ */
+public final class LongDoublePairList {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private long[] first;
+	private double[] second;
+	private int size;
+
+	public LongDoublePairList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param initialCapacity 初始容量
+	 */
+	public LongDoublePairList(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative.");
+		}
+		first = new long[initialCapacity];
+		second = new double[initialCapacity];
+	}
+
+	/**
+	 * @param pairs 來源
+	 * @return 依序包含所有 Pair 內容的串列
+	 */
+	@Nonnull
+	public static LongDoublePairList from(@Nonnull Collection<? extends Pair<Long, Double>> pairs) {
+		LongDoublePairList list = new LongDoublePairList(pairs.size());
+		for (Pair<Long, Double> pair : pairs) {
+			list.add(pair.get_1(), pair.get_2());
+		}
+		return list;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * 移除所有元素，保留已配置的容量。
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	public void add(long t1, double t2) {
+		if (size == first.length) {
+			grow();
+		}
+		first[size] = t1;
+		second[size] = t2;
+		size++;
+	}
+
+	public void add(@Nonnull LongDoublePair pair) {
+		add(pair.get_1(), pair.get_2());
+	}
+
+	public long get_1(int index) {
+		checkIndex(index);
+		return first[index];
+	}
+
+	public double get_2(int index) {
+		checkIndex(index);
+		return second[index];
+	}
+
+	/**
+	 * @param index 索引
+	 * @return 新建立的 pair，大量讀取時請改用 {@link #get_1(int)}、{@link #get_2(int)} 或 {@link #cursor()}
+	 */
+	@Nonnull
+	public LongDoublePair get(int index) {
+		checkIndex(index);
+		return LongDoublePair.of(first[index], second[index]);
+	}
+
+	public void set(int index, long t1, double t2) {
+		checkIndex(index);
+		first[index] = t1;
+		second[index] = t2;
+	}
+
+	/**
+	 * 依第一個元素排序，相同時依第二個元素。
+	 */
+	public void sortBy1() {
+		new IndexedSort() {
+			@Override
+			int compare(int i, int j) {
+				int c = Long.compare(first[i], first[j]);
+				return c != 0 ? c : Double.compare(second[i], second[j]);
+			}
+
+			@Override
+			void swap(int i, int j) {
+				LongDoublePairList.this.swap(i, j);
+			}
+		}.sort(size);
+	}
+
+	/**
+	 * 依第二個元素排序，相同時依第一個元素。
+	 */
+	public void sortBy2() {
+		new IndexedSort() {
+			@Override
+			int compare(int i, int j) {
+				int c = Double.compare(second[i], second[j]);
+				return c != 0 ? c : Long.compare(first[i], first[j]);
+			}
+
+			@Override
+			void swap(int i, int j) {
+				LongDoublePairList.this.swap(i, j);
+			}
+		}.sort(size);
+	}
+
+	/**
+	 * 在已依第一個元素排序的串列中搜尋。
+	 *
+	 * @param key 第一個元素
+	 * @return 第一個符合的索引；找不到時為 -(插入位置) - 1
+	 * @see #sortBy1()
+	 */
+	public int binarySearch1(long key) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (Long.compare(first[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo < size && Long.compare(first[lo], key) == 0 ? lo : -(lo + 1);
+	}
+
+	/**
+	 * 在已依第二個元素排序的串列中搜尋。
+	 *
+	 * @param key 第二個元素
+	 * @return 第一個符合的索引；找不到時為 -(插入位置) - 1
+	 * @see #sortBy2()
+	 */
+	public int binarySearch2(double key) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (Double.compare(second[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo < size && Double.compare(second[lo], key) == 0 ? lo : -(lo + 1);
+	}
+
+	/**
+	 * @return 從頭開始的游標
+	 */
+	@Nonnull
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return 依序包含所有元素的 Pair 串列
+	 */
+	@Nonnull
+	public List<Pair<Long, Double>> toPairs() {
+		List<Pair<Long, Double>> pairs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			pairs.add(Pair.of(first[i], second[i]));
+		}
+		return pairs;
+	}
+
+	/**
+	 * @return 所有第一個元素的複本
+	 */
+	@Nonnull
+	public long[] toArray1() {
+		return Arrays.copyOf(first, size);
+	}
+
+	/**
+	 * @return 所有第二個元素的複本
+	 */
+	@Nonnull
+	public double[] toArray2() {
+		return Arrays.copyOf(second, size);
+	}
+
+	private void swap(int i, int j) {
+		long t1 = first[i];
+		first[i] = first[j];
+		first[j] = t1;
+		double t2 = second[i];
+		second[i] = second[j];
+		second[j] = t2;
+	}
+
+	private void grow() {
+		if (first.length >= MAX_CAPACITY) {
+			throw new OutOfMemoryError("LongDoublePairList is too large.");
+		}
+		int capacity = (int) Math.min(MAX_CAPACITY, Math.max(DEFAULT_CAPACITY, (long) first.length + (first.length >> 1)));
+		first = Arrays.copyOf(first, capacity);
+		second = Arrays.copyOf(second, capacity);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('(').append(first[i]).append(", ").append(second[i]).append(')');
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * 逐一讀取元素的游標，迭代時不建立物件。
+	 *
+	 * <pre>
+	 * for (LongDoublePairList.Cursor c = list.cursor(); c.next(); ) {
+	 *     use(c.get_1(), c.get_2());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+		private int index = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * 移到下一個元素。
+		 *
+		 * @return 是否還有元素
+		 */
+		public boolean next() {
+			if (index < size) {
+				index++;
+			}
+			return index < size;
+		}
+
+		/**
+		 * @return 目前元素的索引
+		 */
+		public int index() {
+			return index;
+		}
+
+		public long get_1() {
+			checkIndex(index);
+			return first[index];
+		}
+
+		public double get_2() {
+			checkIndex(index);
+			return second[index];
+		}
+
+		/**
+		 * 回到開頭，重新迭代。
+		 */
+		public void reset() {
+			index = -1;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 取得目前時間 (epoch 毫秒) 的時鐘，可替換成低成本或測試用的實作。
+ *
+ * @author Scribe Huang
+ * @see DateUtil#setClock(MillisClock)
+ */
+public abstract class MillisClock {
+	private static final MillisClock SYSTEM = new MillisClock() {
+		@Override
+		public long millis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public String toString() {
+			return "MillisClock.system()";
+		}
+	};
+
+	/**
+	 * @return 目前時間 (epoch 毫秒)
+	 */
+	public abstract long millis();
+
+	/**
+	 * 精確的系統時鐘，每次呼叫 {@link System#currentTimeMillis()}。
+	 *
+	 * @return 系統時鐘
+	 */
+	@Nonnull
+	public static MillisClock system() {
+		return SYSTEM;
+	}
+
+	/**
+	 * 粗略時鐘。由背景 daemon 執行緒每隔一段時間更新時間，讀取時只需讀取一個 volatile 欄位。
+	 * 時間永不倒退，誤差最多為更新間隔。不再使用時應呼叫 {@link Coarse#stop()}。
+	 *
+	 * @param tickMillis 更新間隔毫秒數
+	 * @return 粗略時鐘
+	 */
+	@Nonnull
+	public static Coarse coarse(long tickMillis) {
+		return new Coarse(tickMillis);
+	}
+
+	/**
+	 * 固定時間的時鐘，供測試使用。
+	 *
+	 * @param epochMillis 固定的時間
+	 * @return 固定時鐘
+	 */
+	@Nonnull
+	public static MillisClock fixed(final long epochMillis) {
+		return new MillisClock() {
+			@Override
+			public long millis() {
+				return epochMillis;
+			}
+
+			@Override
+			public String toString() {
+				return "MillisClock.fixed(" + epochMillis + ")";
+			}
+		};
+	}
+
+	/**
+	 * 手動調整的時鐘，供測試快轉時間使用。
+	 *
+	 * @param epochMillis 起始時間
+	 * @return 手動時鐘
+	 */
+	@Nonnull
+	public static Manual manual(long epochMillis) {
+		return new Manual(epochMillis);
+	}
+
+	/**
+	 * 手動調整的時鐘。Thread-safe。
+	 */
+	public static final class Manual extends MillisClock {
+		private volatile long now;
+
+		private Manual(long epochMillis) {
+			now = epochMillis;
+		}
+
+		@Override
+		public long millis() {
+			return now;
+		}
+
+		/**
+		 * 設定時間。
+		 *
+		 * @param epochMillis 時間
+		 */
+		public void set(long epochMillis) {
+			now = epochMillis;
+		}
+
+		/**
+		 * 快轉時間。
+		 *
+		 * @param duration 時間長度
+		 * @param unit 時間單位
+		 */
+		public synchronized void advance(long duration, @Nonnull TimeUnit unit) {
+			now += unit.toMillis(duration);
+		}
+
+		@Override
+		public String toString() {
+			return "MillisClock.manual(" + now + ")";
+		}
+	}
+
+	/**
+	 * 由背景執行緒更新的粗略時鐘。Thread-safe。
+	 */
+	public static final class Coarse extends MillisClock {
+		private static final AtomicInteger COUNTER = new AtomicInteger(1);
+
+		private final long tickMillis;
+		private final Thread ticker;
+		private volatile long now = System.currentTimeMillis();
+
+		private Coarse(long tickMillis) {
+			if (tickMillis <= 0) {
+				throw new IllegalArgumentException("Tick must be positive.");
+			}
+			this.tickMillis = tickMillis;
+			ticker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					tick();
+				}
+			}, "CoarseClock-" + COUNTER.getAndIncrement());
+			ticker.setDaemon(true);
+			ticker.start();
+		}
+
+		@Override
+		public long millis() {
+			return now;
+		}
+
+		/**
+		 * @return 更新間隔毫秒數
+		 */
+		public long getTickMillis() {
+			return tickMillis;
+		}
+
+		/**
+		 * 停止背景更新。停止後時間不再前進。
+		 */
+		public void stop() {
+			ticker.interrupt();
+		}
+
+		private void tick() {
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					Thread.sleep(tickMillis);
+					long current = System.currentTimeMillis();
+					// 系統時間被往回調時不倒退
+					if (current > now) {
+						now = current;
+					}
+				}
+			} catch (InterruptedException ignored) {
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "MillisClock.coarse(" + tickMillis + ")";
+		}
+	}
+}
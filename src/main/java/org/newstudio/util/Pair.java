@@ -1,9 +1,13 @@
 package org.newstudio.util;
 
+import javax.annotation.Nonnull;
+
 /**
  * Pair 資料型態，可以儲存一對數值。
  */
 public class Pair<T1, T2> {
+	private static final WeakInterner<Pair<?, ?>> INTERNER = new WeakInterner<>();
+
 	private final T1 _1;
 	private final T2 _2;
 
@@ -16,6 +20,36 @@ public class Pair<T1, T2> {
 		return new Pair<>(t1, t2);
 	}
 
+	/**
+	 * 建立時就計算並保存 hashCode 的 Pair，適合當作 HashMap 的 key 重複查詢，
+	 * 尤其元素是 String 或巢狀 Pair 時。元素必須是 immutable。
+	 * 與 {@link #of} 建立的 Pair 內容相同時仍然相等。
+	 *
+	 * @return 保存 hashCode 的 Pair
+	 */
+	public static <T1, T2> Pair<T1, T2> ofCachedHash(T1 t1, T2 t2) {
+		return new CachedHashPair<>(t1, t2);
+	}
+
+	/**
+	 * 取得與 pair 相等的標準實例，大量重複的 Pair 可共用同一個物件以節省記憶體，
+	 * 標準實例之間比較時也可直接以 == 判斷。標準實例會保存 hashCode，
+	 * 且以 weak reference 保存，沒有其他參考時會被 GC 回收。Thread-safe。
+	 *
+	 * @param pair 要標準化的 Pair，元素必須是 immutable
+	 * @return 標準實例
+	 * @see String#intern()
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public static <T1, T2> Pair<T1, T2> intern(@Nonnull Pair<T1, T2> pair) {
+		Pair<?, ?> canonical = INTERNER.find(pair);
+		if (canonical == null) {
+			canonical = INTERNER.intern(pair instanceof CachedHashPair ? pair : ofCachedHash(pair._1, pair._2));
+		}
+		return (Pair<T1, T2>) canonical;
+	}
+
 	public T1 get_1() {
 		return _1;
 	}
@@ -27,7 +61,7 @@ public class Pair<T1, T2> {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Pair)) return false;
 
 		Pair<?, ?> pair = (Pair<?, ?>) o;
 
@@ -56,4 +90,33 @@ public class Pair<T1, T2> {
 	public Pair<T2, T1> swap() {
 		return Pair.of(_2, _1);
 	}
+
+	/**
+	 * 保存 hashCode 的 Pair。
+	 */
+	private static final class CachedHashPair<T1, T2> extends Pair<T1, T2> {
+		private final int hash;
+
+		CachedHashPair(T1 t1, T2 t2) {
+			super(t1, t2);
+			hash = super.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			// hashCode 不同時不需比較元素
+			if (o instanceof CachedHashPair && ((CachedHashPair<?, ?>) o).hash != hash) return false;
+			return super.equals(o);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public Pair<T2, T1> swap() {
+			return Pair.ofCachedHash(get_2(), get_1());
+		}
+	}
 }
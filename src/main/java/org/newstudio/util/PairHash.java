@@ -0,0 +1,36 @@
+package org.newstudio.util;
+
+/**
+ * Pair 的雜湊函式。{@code 31 * h1 + h2} 對連續的整數分佈不均，
+ * 例如 (0, 31) 與 (1, 0) 相同，因此先合併兩個值再以 64 位元的 finalizer 打散。
+ *
+ * @author Scribe Huang
+ */
+final class PairHash {
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	private PairHash() {
+		throw new UnsupportedOperationException(
+			"Class PairHash doesn't support new instance."
+		);
+	}
+
+	/**
+	 * @param a 第一個值的位元
+	 * @param b 第二個值的位元
+	 * @return 雜湊值
+	 */
+	static int hash(long a, long b) {
+		long z = mix(a * GOLDEN + b);
+		return (int) (z ^ (z >>> 32));
+	}
+
+	/**
+	 * SplitMix64 的 finalizer，每個輸入位元都會影響所有輸出位元。
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,309 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pair 的串列。兩個元素分別存在兩個陣列中 (struct of arrays)，不需為每一對建立 {@link Pair} 物件。
+ * 元素為 int、long 或 double 時請改用 {@link IntLongPairList} 等 primitive 版本，連 boxing 也可省去。
+ * Not thread-safe。
+ *
+ * @param <T1> 第一個元素的型態
+ * @param <T2> 第二個元素的型態
+ * @author Scribe Huang
+ * @see Pair
+ */
+public final class PairList<T1, T2> {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private Object[] first;
+	private Object[] second;
+	private int size;
+
+	public PairList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param initialCapacity 初始容量
+	 */
+	public PairList(int initialCapacity) {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative.");
+		}
+		first = new Object[initialCapacity];
+		second = new Object[initialCapacity];
+	}
+
+	/**
+	 * @param pairs 來源
+	 * @param <T1> 第一個元素的型態
+	 * @param <T2> 第二個元素的型態
+	 * @return 依序包含所有 Pair 內容的串列
+	 */
+	@Nonnull
+	public static <T1, T2> PairList<T1, T2> from(@Nonnull Collection<? extends Pair<? extends T1, ? extends T2>> pairs) {
+		PairList<T1, T2> list = new PairList<>(pairs.size());
+		for (Pair<? extends T1, ? extends T2> pair : pairs) {
+			list.add(pair.get_1(), pair.get_2());
+		}
+		return list;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * 移除所有元素，保留已配置的容量。
+	 */
+	public void clear() {
+		Arrays.fill(first, 0, size, null);
+		Arrays.fill(second, 0, size, null);
+		size = 0;
+	}
+
+	public void add(T1 t1, T2 t2) {
+		if (size == first.length) {
+			grow();
+		}
+		first[size] = t1;
+		second[size] = t2;
+		size++;
+	}
+
+	public void add(@Nonnull Pair<? extends T1, ? extends T2> pair) {
+		add(pair.get_1(), pair.get_2());
+	}
+
+	@SuppressWarnings("unchecked")
+	public T1 get_1(int index) {
+		checkIndex(index);
+		return (T1) first[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public T2 get_2(int index) {
+		checkIndex(index);
+		return (T2) second[index];
+	}
+
+	/**
+	 * @param index 索引
+	 * @return 新建立的 Pair，大量讀取時請改用 {@link #get_1(int)}、{@link #get_2(int)} 或 {@link #cursor()}
+	 */
+	@Nonnull
+	public Pair<T1, T2> get(int index) {
+		return Pair.of(get_1(index), get_2(index));
+	}
+
+	public void set(int index, T1 t1, T2 t2) {
+		checkIndex(index);
+		first[index] = t1;
+		second[index] = t2;
+	}
+
+	/**
+	 * 依第一個元素排序。不是穩定排序。
+	 *
+	 * @param comparator 比較方式，null 表示依元素的自然順序
+	 */
+	public void sortBy1(@Nullable Comparator<? super T1> comparator) {
+		sort(first, comparator);
+	}
+
+	/**
+	 * 依第二個元素排序。不是穩定排序。
+	 *
+	 * @param comparator 比較方式，null 表示依元素的自然順序
+	 */
+	public void sortBy2(@Nullable Comparator<? super T2> comparator) {
+		sort(second, comparator);
+	}
+
+	/**
+	 * 在已依第一個元素排序的串列中搜尋。
+	 *
+	 * @param key 第一個元素
+	 * @param comparator 排序時使用的比較方式，null 表示依元素的自然順序
+	 * @return 第一個符合的索引；找不到時為 -(插入位置) - 1
+	 * @see #sortBy1(Comparator)
+	 */
+	public int binarySearch1(T1 key, @Nullable Comparator<? super T1> comparator) {
+		return binarySearch(first, key, comparator);
+	}
+
+	/**
+	 * 在已依第二個元素排序的串列中搜尋。
+	 *
+	 * @param key 第二個元素
+	 * @param comparator 排序時使用的比較方式，null 表示依元素的自然順序
+	 * @return 第一個符合的索引；找不到時為 -(插入位置) - 1
+	 * @see #sortBy2(Comparator)
+	 */
+	public int binarySearch2(T2 key, @Nullable Comparator<? super T2> comparator) {
+		return binarySearch(second, key, comparator);
+	}
+
+	/**
+	 * @return 從頭開始的游標
+	 */
+	@Nonnull
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * @return 依序包含所有元素的 Pair 串列
+	 */
+	@Nonnull
+	public List<Pair<T1, T2>> toPairs() {
+		List<Pair<T1, T2>> pairs = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			pairs.add(get(i));
+		}
+		return pairs;
+	}
+
+	private <T> void sort(@Nonnull final Object[] keys, @Nullable Comparator<? super T> comparator) {
+		final Comparator<? super T> c = orNatural(comparator);
+		new IndexedSort() {
+			@Override
+			@SuppressWarnings("unchecked")
+			int compare(int i, int j) {
+				return c.compare((T) keys[i], (T) keys[j]);
+			}
+
+			@Override
+			void swap(int i, int j) {
+				PairList.this.swap(i, j);
+			}
+		}.sort(size);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> int binarySearch(@Nonnull Object[] keys, T key, @Nullable Comparator<? super T> comparator) {
+		Comparator<? super T> c = orNatural(comparator);
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compare((T) keys[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo < size && c.compare((T) keys[lo], key) == 0 ? lo : -(lo + 1);
+	}
+
+	@Nonnull
+	private static <T> Comparator<? super T> orNatural(@Nullable Comparator<? super T> comparator) {
+		if (comparator != null) {
+			return comparator;
+		}
+		return new Comparator<T>() {
+			@Override
+			@SuppressWarnings("unchecked")
+			public int compare(T o1, T o2) {
+				return ((Comparable<Object>) o1).compareTo(o2);
+			}
+		};
+	}
+
+	private void swap(int i, int j) {
+		Object t1 = first[i];
+		first[i] = first[j];
+		first[j] = t1;
+		Object t2 = second[i];
+		second[i] = second[j];
+		second[j] = t2;
+	}
+
+	private void grow() {
+		if (first.length >= MAX_CAPACITY) {
+			throw new OutOfMemoryError("PairList is too large.");
+		}
+		int capacity = (int) Math.min(MAX_CAPACITY, Math.max(DEFAULT_CAPACITY, (long) first.length + (first.length >> 1)));
+		first = Arrays.copyOf(first, capacity);
+		second = Arrays.copyOf(second, capacity);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('(').append(first[i]).append(", ").append(second[i]).append(')');
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * 逐一讀取元素的游標，迭代時不建立物件。
+	 *
+	 * <pre>
+	 * for (PairList.Cursor c = list.cursor(); c.next(); ) {
+	 *     use(c.get_1(), c.get_2());
+	 * }
+	 * </pre>
+	 */
+	public final class Cursor {
+		private int index = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * 移到下一個元素。
+		 *
+		 * @return 是否還有元素
+		 */
+		public boolean next() {
+			if (index < size) {
+				index++;
+			}
+			return index < size;
+		}
+
+		/**
+		 * @return 目前元素的索引
+		 */
+		public int index() {
+			return index;
+		}
+
+		public T1 get_1() {
+			return PairList.this.get_1(index);
+		}
+
+		public T2 get_2() {
+			return PairList.this.get_2(index);
+		}
+
+		/**
+		 * 回到開頭，重新迭代。
+		 */
+		public void reset() {
+			index = -1;
+		}
+	}
+}
@@ -1,16 +1,150 @@
 package org.newstudio.util;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.annotation.Nonnull;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * ParallelExecutor.
+ *
+ * 可分批重複使用：每批以 {@link #execute} 提交工作後呼叫 {@link #await()} 等待完成，執行緒池保持運作，
+ * 全部結束後再呼叫 {@link #shutdown()}。只使用一次時可直接呼叫 {@link #waitParallel()}。
  */
 public final class ParallelExecutor {
+	/**
+	 * 執行緒池類型。
+	 */
+	public enum Mode {
+		/** 所有執行緒共用一個工作佇列。 */
+		FIXED,
+		/** 每個執行緒有自己的工作佇列並互相竊取工作，適合大量細小的工作。 */
+		WORK_STEALING
+	}
+
+	/**
+	 * 待執行工作達到上限時 {@link #execute} 的處理方式。
+	 */
+	public enum Backpressure {
+		/** 呼叫端等到有空位。 */
+		BLOCK,
+		/** 由呼叫端的執行緒直接執行。 */
+		CALLER_RUNS,
+		/** 捨棄工作。 */
+		DROP,
+		/** 丟出 {@link RejectedExecutionException}。 */
+		FAIL_FAST
+	}
+
+	/**
+	 * 接受一個 int 的動作。
+	 */
+	public interface IntConsumer {
+		void accept(int value);
+	}
+
+	/**
+	 * 轉換函式。
+	 *
+	 * @param <T> 輸入型別
+	 * @param <R> 輸出型別
+	 */
+	public interface Function<T, R> {
+		R apply(T t);
+	}
+
+	/**
+	 * 合併兩個值的函式，需滿足結合律。
+	 *
+	 * @param <T> 值的型別
+	 */
+	public interface BinaryOperator<T> {
+		T apply(T left, T right);
+	}
+
+	/** 每個執行緒分配的區段數，區段較多時負載較平均。 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/** 每批最多保留的失敗原因數，其餘只計數。 */
+	private static final int MAX_FAILURES = 16;
+
+	private static final Logger LOG = LoggerFactory.getLogger(ParallelExecutor.class);
 	private static final AtomicInteger COUNTER = new AtomicInteger(1);
+	private final Mode mode;
 	private final ExecutorService parallel;
+	private final int threads;
+	private final int queueCapacity;
+	private final Backpressure backpressure;
+	/** 可同時存在 (執行中及待執行) 的工作數，不限制時為 null。 */
+	private final Semaphore slots;
+
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicLong rejected = new AtomicLong();
+	private final Lock lock = new ReentrantLock();
+	private final Condition drained = lock.newCondition();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * 建立自訂類型及數量，並限制待執行工作數的新執行緒池。
+	 *
+	 * @param mode 執行緒池類型
+	 * @param count 執行緒數量
+	 * @param namingFormat 執行緒池命名規則
+	 * @param queueCapacity 待執行 (不含執行中) 的工作數上限
+	 * @param backpressure 達到上限時的處理方式
+	 */
+	public ParallelExecutor(@Nonnull Mode mode, int count, @Nonnull String namingFormat,
+	                        int queueCapacity, @Nonnull Backpressure backpressure) {
+		this(mode, count, namingFormat, queueCapacity, backpressure,
+			new Semaphore((int) Math.min(Integer.MAX_VALUE, (long) checkCapacity(queueCapacity) + count)));
+	}
+
+	/**
+	 * 建立自訂類型及數量的新執行緒池。
+	 *
+	 * @param mode 執行緒池類型
+	 * @param count 執行緒數量
+	 * @param namingFormat 執行緒池命名規則
+	 */
+	public ParallelExecutor(@Nonnull Mode mode, int count, @Nonnull String namingFormat) {
+		this(mode, count, namingFormat, Integer.MAX_VALUE, Backpressure.BLOCK, null);
+	}
+
+	private ParallelExecutor(@Nonnull Mode mode, int count, @Nonnull String namingFormat,
+	                         int queueCapacity, @Nonnull Backpressure backpressure, Semaphore slots) {
+		this.mode = mode;
+		this.threads = count;
+		this.queueCapacity = queueCapacity;
+		this.backpressure = backpressure;
+		this.slots = slots;
+		switch (mode) {
+			case WORK_STEALING:
+				parallel = ExecutorUtil.newWorkStealingPool(namingFormat, count);
+				break;
+			default:
+				parallel = ExecutorUtil.newFixedThreadPool(namingFormat, count);
+				break;
+		}
+	}
 
 	/**
 	 * 建立自訂數量的新執行緒池。
@@ -19,9 +153,7 @@ public final class ParallelExecutor {
 	 * @param namingFormat 執行緒池命名規則
 	 */
 	public ParallelExecutor(int count, @Nonnull String namingFormat) {
-		parallel = ExecutorUtil.newFixedThreadPool(
-			namingFormat, count
-		);
+		this(Mode.FIXED, count, namingFormat);
 	}
 
 	/**
@@ -41,17 +173,258 @@ public final class ParallelExecutor {
 	}
 
 	/**
-	 * 執行工作。
+	 * @return 執行緒池類型
+	 */
+	@Nonnull
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return 執行緒數量
+	 */
+	public int getThreadCount() {
+		return threads;
+	}
+
+	/**
+	 * @return 待執行工作數上限，不限制時為 {@link Integer#MAX_VALUE}
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return 達到待執行工作數上限時的處理方式
+	 */
+	@Nonnull
+	public Backpressure getBackpressure() {
+		return backpressure;
+	}
+
+	/**
+	 * 執行工作。工作丟出的例外會在 {@link #await()} 時回報，或在 {@link #waitParallel()} 時記錄到 log。
+	 * 待執行工作達到上限時依 {@link #getBackpressure()} 處理。
 	 *
 	 * @param task 工作
+	 * @throws RejectedExecutionException 已呼叫 {@link #shutdown()} 或 {@link #waitParallel()}；
+	 *                                    或已達上限且處理方式為 {@link Backpressure#FAIL_FAST}；
+	 *                                    或以 {@link Backpressure#BLOCK} 等待時被中斷
 	 */
 	public void execute(@Nonnull Runnable task) {
-		parallel.execute(task);
+		if (slots != null && !slots.tryAcquire()) {
+			rejected.incrementAndGet();
+			switch (backpressure) {
+				case BLOCK:
+					try {
+						slots.acquire();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("Interrupted while waiting for queue space.", ex);
+					}
+					break;
+				case CALLER_RUNS:
+					pending.incrementAndGet();
+					new Task(task, false).run();
+					return;
+				case DROP:
+					return;
+				default:
+					throw new RejectedExecutionException("The queue is full: " + queueCapacity);
+			}
+		}
+
+		pending.incrementAndGet();
+		try {
+			parallel.execute(new Task(task, slots != null));
+		} catch (RejectedExecutionException ex) {
+			if (slots != null) {
+				slots.release();
+			}
+			done();
+			throw ex;
+		}
+	}
+
+	/**
+	 * @return 已提交但尚未結束的工作數
+	 */
+	public int getPendingCount() {
+		return pending.get();
+	}
+
+	/**
+	 * @return 待執行 (不含執行中) 的工作數，為近似值
+	 */
+	public int getQueueDepth() {
+		return Math.max(0, pending.get() - running.get());
+	}
+
+	/**
+	 * @return 提交時已達待執行工作數上限的次數，{@link Backpressure#BLOCK} 時為需要等待的次數
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	/**
+	 * 等到目前已提交的工作都結束，執行緒池保持運作，之後可繼續提交下一批工作。
+	 *
+	 * @throws InterruptedException 等待時被中斷
+	 * @throws ExecutionException 這批工作中有工作丟出例外，其餘的例外附加為 suppressed
+	 */
+	public void await() throws InterruptedException, ExecutionException {
+		await(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 等到目前已提交的工作都結束，或超過等待時間。執行緒池保持運作。
+	 *
+	 * @param timeout 最長等待時間
+	 * @param unit 時間單位
+	 * @return 工作是否都已結束，逾時為 false
+	 * @throws InterruptedException 等待時被中斷
+	 * @throws ExecutionException 這批工作中有工作丟出例外，其餘的例外附加為 suppressed
+	 */
+	public boolean await(long timeout, @Nonnull TimeUnit unit) throws InterruptedException, ExecutionException {
+		long nanos = unit.toNanos(timeout);
+		lock.lock();
+		try {
+			while (pending.get() > 0) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = drained.awaitNanos(nanos);
+			}
+		} finally {
+			lock.unlock();
+		}
+		throwFailures();
+		return true;
+	}
+
+	/**
+	 * 平行執行 body.accept(i)，i 從 from 到 to (不含)。
+	 * 範圍依執行緒數切成連續的區段，呼叫端的執行緒也會參與執行，直到全部完成才返回。
+	 * 不受待執行工作數上限限制，也不列入 {@link #await()} 等待的工作。
+	 *
+	 * @param from 起始值
+	 * @param to 結束值 (不含)
+	 * @param body 動作
+	 * @throws RejectedExecutionException 已呼叫 {@link #shutdown()} 或 {@link #waitParallel()}
+	 */
+	public void parallelFor(final int from, int to, @Nonnull final IntConsumer body) {
+		if (from >= to) {
+			return;
+		}
+		long n = (long) to - from;
+		new Split(n, chunkCount(n)) {
+			@Override
+			void run(int chunk, long start, long end) {
+				for (long i = start; i < end; i++) {
+					body.accept((int) (from + i));
+				}
+			}
+		}.invoke();
+	}
+
+	/**
+	 * 平行轉換每個元素，結果順序與輸入相同。
+	 *
+	 * @param list 輸入
+	 * @param function 轉換函式
+	 * @param <T> 輸入型別
+	 * @param <R> 輸出型別
+	 * @return 轉換結果，不可修改
+	 * @throws RejectedExecutionException 已呼叫 {@link #shutdown()} 或 {@link #waitParallel()}
+	 * @see #parallelFor(int, int, IntConsumer)
+	 */
+	@Nonnull
+	@SuppressWarnings("unchecked")
+	public <T, R> List<R> map(@Nonnull List<T> list, @Nonnull final Function<? super T, ? extends R> function) {
+		final Object[] items = list.toArray();
+		final Object[] results = new Object[items.length];
+		new Split(items.length, chunkCount(items.length)) {
+			@Override
+			void run(int chunk, long start, long end) {
+				for (int i = (int) start; i < end; i++) {
+					results[i] = function.apply((T) items[i]);
+				}
+			}
+		}.invoke();
+		return Collections.unmodifiableList(Arrays.asList((R[]) results));
+	}
+
+	/**
+	 * 平行轉換每個元素後依輸入順序合併。每個區段先各自合併，最後再依區段順序合併，
+	 * 因此 reducer 只需滿足結合律，不需滿足交換律。
+	 *
+	 * @param list 輸入
+	 * @param mapper 轉換函式
+	 * @param identity 合併的初始值，與任何值合併都應得到該值本身
+	 * @param reducer 合併函式
+	 * @param <T> 輸入型別
+	 * @param <R> 輸出型別
+	 * @return 合併結果，輸入為空時回傳 identity
+	 * @throws RejectedExecutionException 已呼叫 {@link #shutdown()} 或 {@link #waitParallel()}
+	 * @see #parallelFor(int, int, IntConsumer)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T, R> R mapReduce(@Nonnull List<T> list, @Nonnull final Function<? super T, ? extends R> mapper,
+	                          final R identity, @Nonnull final BinaryOperator<R> reducer) {
+		final Object[] items = list.toArray();
+		int chunks = chunkCount(items.length);
+		final Object[] partials = new Object[chunks];
+		new Split(items.length, chunks) {
+			@Override
+			void run(int chunk, long start, long end) {
+				R partial = identity;
+				for (int i = (int) start; i < end; i++) {
+					partial = reducer.apply(partial, mapper.apply((T) items[i]));
+				}
+				partials[chunk] = partial;
+			}
+		}.invoke();
+
+		R result = identity;
+		for (Object partial : partials) {
+			result = reducer.apply(result, (R) partial);
+		}
+		return result;
+	}
+
+	/**
+	 * 建立批次提交工作到此執行緒池的 Executor，適合大量細小的工作。
+	 * 每批以一個工作計入 {@link #getPendingCount()} 及待執行工作數上限。
+	 *
+	 * @param batchSize 每批的工作數上限
+	 * @param maxDelay 工作在緩衝區中最長的停留時間
+	 * @param unit 時間單位
+	 * @return 批次提交的 Executor
+	 */
+	@Nonnull
+	public BatchingExecutor batching(int batchSize, long maxDelay, @Nonnull TimeUnit unit) {
+		return new BatchingExecutor(this, batchSize, maxDelay, unit);
+	}
+
+	/**
+	 * 不再接受新工作，已提交的工作會繼續執行。
+	 */
+	public void shutdown() {
+		parallel.shutdown();
+	}
+
+	/**
+	 * @return 是否已不再接受新工作
+	 */
+	public boolean isShutdown() {
+		return parallel.isShutdown();
 	}
 
 	/**
 	 * 等到所有工作結束。
 	 * 執行此方法後 {@link #execute} 就無法再接受工作。
+	 * 工作丟出的例外以 error 記錄到 log，需要在程式中處理時請改用 {@link #await()}。
 	 */
 	public void waitParallel() {
 		parallel.shutdown();
@@ -59,5 +432,168 @@ public final class ParallelExecutor {
 			parallel.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
 		} catch (InterruptedException ignored) {
 		}
+		logFailures();
+	}
+
+	private int chunkCount(long n) {
+		return (int) Math.min(n, (long) threads * CHUNKS_PER_THREAD);
+	}
+
+	private static int checkCapacity(int queueCapacity) {
+		if (queueCapacity < 0) {
+			throw new IllegalArgumentException("Queue capacity must not be negative.");
+		}
+		return queueCapacity;
+	}
+
+	private void done() {
+		if (pending.decrementAndGet() == 0) {
+			lock.lock();
+			try {
+				drained.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void fail(@Nonnull Throwable ex) {
+		if (failed.incrementAndGet() <= MAX_FAILURES) {
+			failures.add(ex);
+		}
+	}
+
+	private void logFailures() {
+		int count = failed.getAndSet(0);
+		for (Throwable ex; (ex = failures.poll()) != null; ) {
+			LOG.error("Parallel task failed.", ex);
+		}
+		if (count > MAX_FAILURES) {
+			LOG.error("{} more parallel task(s) failed.", count - MAX_FAILURES);
+		}
+	}
+
+	private void throwFailures() throws ExecutionException {
+		Throwable first = failures.poll();
+		if (first == null) {
+			return;
+		}
+		for (Throwable other; (other = failures.poll()) != null; ) {
+			first.addSuppressed(other);
+		}
+		int count = failed.getAndSet(0);
+		throw new ExecutionException(count + " task(s) failed.", first);
+	}
+
+	/**
+	 * 記錄執行狀態及例外的工作。
+	 */
+	private final class Task implements Runnable {
+		private final Runnable task;
+		private final boolean holdsSlot;
+
+		Task(@Nonnull Runnable task, boolean holdsSlot) {
+			this.task = task;
+			this.holdsSlot = holdsSlot;
+		}
+
+		@Override
+		public void run() {
+			running.incrementAndGet();
+			try {
+				task.run();
+			} catch (Throwable ex) {
+				fail(ex);
+				if (ex instanceof Error) {
+					throw (Error) ex;
+				}
+			} finally {
+				running.decrementAndGet();
+				if (holdsSlot) {
+					slots.release();
+				}
+				done();
+			}
+		}
+	}
+
+	/**
+	 * 把 [0, n) 切成 chunks 個連續區段平行執行。
+	 * 協助的工作與呼叫端輪流領取區段，呼叫端在池中的執行緒上呼叫時也不會互相等待而卡住。
+	 */
+	private abstract class Split implements Runnable {
+		private final long n;
+		private final int chunks;
+		private final AtomicInteger next = new AtomicInteger();
+		private final AtomicInteger remaining;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Split(long n, int chunks) {
+			this.n = n;
+			this.chunks = chunks;
+			remaining = new AtomicInteger(chunks);
+		}
+
+		abstract void run(int chunk, long start, long end);
+
+		@Override
+		public void run() {
+			for (int chunk; (chunk = next.getAndIncrement()) < chunks; ) {
+				try {
+					if (failure.get() == null) {
+						run(chunk, n * chunk / chunks, n * (chunk + 1) / chunks);
+					}
+				} catch (Throwable ex) {
+					failure.compareAndSet(null, ex);
+				} finally {
+					if (remaining.decrementAndGet() == 0) {
+						done.countDown();
+					}
+				}
+			}
+		}
+
+		void invoke() {
+			if (chunks == 0) {
+				return;
+			}
+			if (parallel.isShutdown()) {
+				throw new RejectedExecutionException("The executor has been shut down.");
+			}
+			for (int i = 1; i < Math.min(threads, chunks); i++) {
+				try {
+					parallel.execute(this);
+				} catch (RejectedExecutionException ex) {
+					// 由呼叫端完成剩下的區段
+					break;
+				}
+			}
+			run();
+
+			boolean interrupted = false;
+			while (true) {
+				try {
+					done.await();
+					break;
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+
+			Throwable ex = failure.get();
+			if (ex instanceof RuntimeException) {
+				throw (RuntimeException) ex;
+			}
+			if (ex instanceof Error) {
+				throw (Error) ex;
+			}
+			if (ex != null) {
+				throw new UndeclaredThrowableException(ex);
+			}
+		}
 	}
 }
@@ -0,0 +1,254 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * 檔案大小格式化。只使用整數運算，格式化到呼叫端提供的 char[] 時不建立任何物件。
+ * 進位方式與 {@link java.text.DecimalFormat} 預設相同 (HALF_EVEN)。Immutable。
+ *
+ * <pre>
+ * SizeFormat.of(SizeFormat.Base.IEC, 2).format(1536)     // "1.50 KiB"
+ * SizeFormat.fixed(SizeFormat.Base.JEDEC, 1, 2).format(1536)  // "1.50"
+ * </pre>
+ *
+ * @author Scribe Huang
+ * @see FileUtil#formatSize(long)
+ */
+public final class SizeFormat {
+	/**
+	 * 單位制。
+	 */
+	public enum Base {
+		/** 以 1000 為進位，單位 B, kB, MB, GB, TB, PB。 */
+		SI(1000, "B", "kB", "MB", "GB", "TB", "PB"),
+		/** 以 1024 為進位，單位 B, KiB, MiB, GiB, TiB, PiB。 */
+		IEC(1024, "B", "KiB", "MiB", "GiB", "TiB", "PiB"),
+		/** 以 1024 為進位，沿用習慣單位 B, KB, MB, GB, TB, PB。 */
+		JEDEC(1024, "B", "KB", "MB", "GB", "TB", "PB");
+
+		private final int radix;
+		private final long[] divisors;
+		private final char[][] symbols;
+
+		Base(int radix, String... symbols) {
+			this.radix = radix;
+			this.divisors = new long[symbols.length];
+			this.symbols = new char[symbols.length][];
+			long divisor = 1;
+			for (int i = 0; i < symbols.length; i++) {
+				divisors[i] = divisor;
+				this.symbols[i] = symbols[i].toCharArray();
+				divisor *= radix;
+			}
+		}
+
+		/**
+		 * @param power 單位次方，0 為 B
+		 * @return 單位符號
+		 */
+		@Nonnull
+		public String symbol(int power) {
+			return new String(symbols[power]);
+		}
+
+		/**
+		 * @return 最大的單位次方
+		 */
+		public int maxPower() {
+			return divisors.length - 1;
+		}
+
+		private int powerOf(long bytes) {
+			int power = 0;
+			while (power < divisors.length - 1 && bytes >= divisors[power + 1]) {
+				power++;
+			}
+			return power;
+		}
+	}
+
+	/** 最多小數位數，確保 {@code 餘數 * 10^decimals} 不會溢位。 */
+	public static final int MAX_DECIMALS = 3;
+	private static final int MAX_DIGITS = 19;
+	private static final int AUTO = -1;
+
+	private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[MAX_DIGITS + 1 + MAX_DECIMALS + 4];
+		}
+	};
+
+	private final Base base;
+	private final int power;
+	private final int decimals;
+	private final long scale;
+	private final char separator;
+	private final char zeroDigit;
+
+	private SizeFormat(@Nonnull Base base, int power, int decimals, char separator, char zeroDigit) {
+		Objects.requireNonNull(base, "The base is null.");
+		if (decimals < 0 || decimals > MAX_DECIMALS) {
+			throw new IllegalArgumentException("Decimals must be between 0 and " + MAX_DECIMALS + ".");
+		}
+		if (power != AUTO && (power < 0 || power > base.maxPower())) {
+			throw new IllegalArgumentException("Power must be between 0 and " + base.maxPower() + ".");
+		}
+		this.base = base;
+		this.power = power;
+		this.decimals = decimals;
+		this.separator = separator;
+		this.zeroDigit = zeroDigit;
+		long s = 1;
+		for (int i = 0; i < decimals; i++) {
+			s *= 10;
+		}
+		scale = s;
+	}
+
+	/**
+	 * 自動選擇單位，數值至少為 1 (0 bytes 除外) 並加上單位符號，例如 "1.50 MiB"、"12 B"。
+	 *
+	 * @param base 單位制
+	 * @param decimals 小數位數，0 至 {@link #MAX_DECIMALS}
+	 * @return 格式
+	 */
+	@Nonnull
+	public static SizeFormat of(@Nonnull Base base, int decimals) {
+		return new SizeFormat(base, AUTO, decimals, '.', '0');
+	}
+
+	/**
+	 * 固定單位且不加單位符號，例如以 KB 表示時 1536 bytes 為 "1.50"。
+	 *
+	 * @param base 單位制
+	 * @param power 單位次方，0 為 B、1 為 KB，依此類推
+	 * @param decimals 小數位數，0 至 {@link #MAX_DECIMALS}
+	 * @return 格式
+	 */
+	@Nonnull
+	public static SizeFormat fixed(@Nonnull Base base, int power, int decimals) {
+		return new SizeFormat(base, power, decimals, '.', '0');
+	}
+
+	/**
+	 * @param decimalSeparator 小數點字元
+	 * @return 改用指定小數點的格式
+	 */
+	@Nonnull
+	public SizeFormat withDecimalSeparator(char decimalSeparator) {
+		return new SizeFormat(base, power, decimals, decimalSeparator, zeroDigit);
+	}
+
+	/**
+	 * @param zeroDigit 數字 0 的字元，其餘數字依序接在其後，例如阿拉伯-印度數字為 '\u0660'
+	 * @return 改用指定數字的格式
+	 * @see java.text.DecimalFormatSymbols#getZeroDigit()
+	 */
+	@Nonnull
+	public SizeFormat withZeroDigit(char zeroDigit) {
+		return new SizeFormat(base, power, decimals, separator, zeroDigit);
+	}
+
+	/**
+	 * @return 格式化結果的最大長度
+	 */
+	public int maxLength() {
+		return MAX_DIGITS + (decimals > 0 ? 1 + decimals : 0) + (power == AUTO ? 4 : 0);
+	}
+
+	/**
+	 * 格式化成字串。
+	 *
+	 * @param bytes 檔案大小
+	 * @return 格式化結果
+	 */
+	@Nonnull
+	public String format(long bytes) {
+		char[] buf = BUFFER.get();
+		return new String(buf, 0, format(bytes, buf, 0));
+	}
+
+	/**
+	 * 格式化並附加到 StringBuilder 後面。
+	 *
+	 * @param bytes 檔案大小
+	 * @param sb 輸出目的
+	 * @return 傳入的 StringBuilder
+	 */
+	@Nonnull
+	public StringBuilder format(long bytes, @Nonnull StringBuilder sb) {
+		char[] buf = BUFFER.get();
+		return sb.append(buf, 0, format(bytes, buf, 0));
+	}
+
+	/**
+	 * 格式化到 char 陣列中。
+	 *
+	 * @param bytes 檔案大小
+	 * @param buf 輸出目的，從 offset 開始需有 {@link #maxLength()} 的空間
+	 * @param offset 起始位置
+	 * @return 結束位置 (不含)
+	 */
+	public int format(long bytes, @Nonnull char[] buf, int offset) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("Value must be positive.");
+		}
+
+		int p = power == AUTO ? base.powerOf(bytes) : power;
+		long divisor = base.divisors[p];
+		long integer = bytes / divisor;
+		// 餘數小於 1024^5，乘上 10^3 仍不會溢位
+		long r = bytes % divisor * scale;
+		long fraction = r / divisor;
+		long twice = r % divisor * 2;
+		if (twice > divisor || (twice == divisor && ((decimals == 0 ? integer : fraction) & 1) != 0)) {
+			if (++fraction == scale) {
+				fraction = 0;
+				integer++;
+			}
+		}
+		// 進位後剛好滿一個單位時改用下一個單位，例如 1023.999 KiB 顯示為 1.00 MiB
+		if (power == AUTO && integer == base.radix && p < base.maxPower()) {
+			p++;
+			integer = 1;
+		}
+
+		int pos = writeDigits(integer, buf, offset, 1, zeroDigit);
+		// 自動選擇單位時 bytes 不會有小數
+		if (decimals > 0 && (power != AUTO || p > 0)) {
+			buf[pos++] = separator;
+			pos = writeDigits(fraction, buf, pos, decimals, zeroDigit);
+		}
+		if (power == AUTO) {
+			buf[pos++] = ' ';
+			char[] symbol = base.symbols[p];
+			System.arraycopy(symbol, 0, buf, pos, symbol.length);
+			pos += symbol.length;
+		}
+		return pos;
+	}
+
+	/**
+	 * 寫入非負整數，不足 width 位時前面補 0。
+	 */
+	private static int writeDigits(long value, @Nonnull char[] buf, int offset, int width, char zeroDigit) {
+		int length = 1;
+		for (long v = value; v >= 10; v /= 10) {
+			length++;
+		}
+		length = Math.max(length, width);
+		int pos = offset + length;
+		for (int i = pos - 1; i >= offset; i--) {
+			buf[i] = (char) (zeroDigit + value % 10);
+			value /= 10;
+		}
+		return pos;
+	}
+
+	@Override
+	public String toString() {
+		return "SizeFormat(" + base + ", " + (power == AUTO ? "auto" : base.symbol(power)) + ", " + decimals + ")";
+	}
+}
@@ -0,0 +1,65 @@
+package org.newstudio.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分散成多個 cache line 的計數器，多執行緒同時累加時不會互相競爭。Thread-safe。
+ * 讀取總和時才加總，因此 {@link #sum()} 不是精確的瞬間值。
+ *
+ * @author Scribe Huang
+ */
+final class StripedCounter {
+	/** 每個計數格之間相隔 64 bytes，避免 false sharing。 */
+	private static final int PADDING = 8;
+
+	private final int mask;
+	private final AtomicLongArray cells;
+
+	StripedCounter() {
+		int stripes = stripes();
+		mask = stripes - 1;
+		cells = new AtomicLongArray(stripes * PADDING);
+	}
+
+	/**
+	 * @return 分散的格數，為不小於 CPU 核心數兩倍的 2 的次方
+	 */
+	static int stripes() {
+		return Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+	}
+
+	/**
+	 * @param mask 格數減 1
+	 * @return 目前執行緒使用的格
+	 */
+	static int stripe(int mask) {
+		long id = Thread.currentThread().getId();
+		return (int) (id * 0x9E3779B97F4A7C15L >>> 32) & mask;
+	}
+
+	void increment() {
+		add(1);
+	}
+
+	void add(long x) {
+		cells.getAndAdd(index(), x);
+	}
+
+	long sum() {
+		long sum = 0;
+		for (int i = 0; i < cells.length(); i += PADDING) {
+			sum += cells.get(i);
+		}
+		return sum;
+	}
+
+	void reset() {
+		for (int i = 0; i < cells.length(); i += PADDING) {
+			cells.set(i, 0);
+		}
+	}
+
+	private int index() {
+		return stripe(mask) * PADDING;
+	}
+}
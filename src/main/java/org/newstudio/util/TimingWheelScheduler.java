@@ -0,0 +1,386 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 以 hashed timing wheel 排程的 {@link ScheduledExecutorService}，適合大量短時間的逾時計時。
+ *
+ * 排程及取消只把工作放進無鎖佇列，由單一 ticker 執行緒每個 tick 放入或移出對應的格子，皆為 O(1)。
+ * 取消的工作會立即從格子中移除，不會累積。到期的工作分成數批交給工作執行緒池執行。
+ * 時間精確度為一個 tick，工作最多晚一個 tick 執行。
+ *
+ * 呼叫 {@link #shutdown()} 後尚未到期的工作會被取消，已到期的工作會執行完畢。
+ *
+ * @author Scribe Huang
+ * @see ExecutorUtil#newTimingWheelScheduler(String, long, TimeUnit, int, int)
+ */
+final class TimingWheelScheduler extends AbstractExecutorService
+		implements ScheduledExecutorService {
+	private final long tickNanos;
+	private final int mask;
+	private final Bucket[] wheel;
+	private final ExecutorService workers;
+	private final int workerCount;
+	private final Thread ticker;
+	private final long startNanos;
+
+	private final ConcurrentLinkedQueue<Timer<?>> added = new ConcurrentLinkedQueue<>();
+	private final ConcurrentLinkedQueue<Timer<?>> cancelled = new ConcurrentLinkedQueue<>();
+	private volatile boolean shutdown;
+	/** 只有 ticker 執行緒存取。 */
+	private long currentTick;
+
+	TimingWheelScheduler(@Nonnull ThreadFactory threadFactory, long tick, @Nonnull TimeUnit unit,
+	                     int ticksPerWheel, int workerCount) {
+		if (tick <= 0) {
+			throw new IllegalArgumentException("Tick must be positive.");
+		}
+		if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+			throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30.");
+		}
+		if (workerCount <= 0) {
+			throw new IllegalArgumentException("Worker count must be positive.");
+		}
+		tickNanos = unit.toNanos(tick);
+		int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+		size = Math.max(1, size);
+		mask = size - 1;
+		wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.workerCount = workerCount;
+		workers = Executors.newFixedThreadPool(workerCount, threadFactory);
+		startNanos = System.nanoTime();
+		ticker = threadFactory.newThread(new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		});
+		ticker.start();
+	}
+
+	@Nonnull
+	@Override
+	public ScheduledFuture<?> schedule(@Nonnull Runnable command, long delay, @Nonnull TimeUnit unit) {
+		return add(new Timer<Void>(command, null, deadline(delay, unit), 0));
+	}
+
+	@Nonnull
+	@Override
+	public <V> ScheduledFuture<V> schedule(@Nonnull Callable<V> callable, long delay, @Nonnull TimeUnit unit) {
+		return add(new Timer<>(callable, deadline(delay, unit)));
+	}
+
+	@Nonnull
+	@Override
+	public ScheduledFuture<?> scheduleAtFixedRate(@Nonnull Runnable command, long initialDelay, long period,
+	                                              @Nonnull TimeUnit unit) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive.");
+		}
+		return add(new Timer<Void>(command, null, deadline(initialDelay, unit), unit.toNanos(period)));
+	}
+
+	@Nonnull
+	@Override
+	public ScheduledFuture<?> scheduleWithFixedDelay(@Nonnull Runnable command, long initialDelay, long delay,
+	                                                 @Nonnull TimeUnit unit) {
+		if (delay <= 0) {
+			throw new IllegalArgumentException("Delay must be positive.");
+		}
+		return add(new Timer<Void>(command, null, deadline(initialDelay, unit), -unit.toNanos(delay)));
+	}
+
+	/**
+	 * 不需延遲的工作直接交給工作執行緒池。
+	 */
+	@Override
+	public void execute(@Nonnull Runnable command) {
+		if (shutdown) {
+			throw new RejectedExecutionException("The scheduler has been shut down.");
+		}
+		workers.execute(command);
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = true;
+		LockSupport.unpark(ticker);
+	}
+
+	@Nonnull
+	@Override
+	public List<Runnable> shutdownNow() {
+		shutdown();
+		return workers.shutdownNow();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return !ticker.isAlive() && workers.isTerminated();
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		ticker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(unit.toNanos(timeout))));
+		if (ticker.isAlive()) {
+			return false;
+		}
+		return workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+
+	private long deadline(long delay, @Nonnull TimeUnit unit) {
+		// 限制最長延遲，避免與 System.nanoTime() 相加時溢位
+		return System.nanoTime() + Math.min(Math.max(0, unit.toNanos(delay)), Long.MAX_VALUE >> 1);
+	}
+
+	@Nonnull
+	private <V> Timer<V> add(@Nonnull Timer<V> timer) {
+		if (shutdown) {
+			throw new RejectedExecutionException("The scheduler has been shut down.");
+		}
+		added.add(timer);
+		// ticker 可能已清空佇列並結束
+		if (shutdown) {
+			timer.cancel(false);
+		}
+		return timer;
+	}
+
+	private void tick() {
+		long next = startNanos + tickNanos;
+		while (!shutdown) {
+			long sleep = next - System.nanoTime();
+			if (sleep > 0) {
+				LockSupport.parkNanos(this, sleep);
+				continue;
+			}
+			removeCancelled();
+			transferAdded();
+			expire(wheel[(int) (currentTick & mask)]);
+			currentTick++;
+			next += tickNanos;
+		}
+		cancelAll();
+		workers.shutdown();
+	}
+
+	private void removeCancelled() {
+		for (Timer<?> timer; (timer = cancelled.poll()) != null; ) {
+			if (timer.bucket != null) {
+				timer.bucket.remove(timer);
+			}
+		}
+	}
+
+	private void transferAdded() {
+		// 每個 tick 最多處理固定數量，避免大量排程時延誤到期工作的執行
+		for (int i = 0; i < 100000; i++) {
+			Timer<?> timer = added.poll();
+			if (timer == null) {
+				break;
+			}
+			if (timer.isCancelled()) {
+				continue;
+			}
+			long ticks = Math.max((timer.deadline - startNanos) / tickNanos, currentTick);
+			timer.rounds = (ticks - currentTick) >> Integer.numberOfTrailingZeros(wheel.length);
+			wheel[(int) (ticks & mask)].add(timer);
+		}
+	}
+
+	private void expire(@Nonnull Bucket bucket) {
+		List<Timer<?>> expired = null;
+		for (Timer<?> timer = bucket.head; timer != null; ) {
+			Timer<?> next = timer.next;
+			if (timer.rounds <= 0) {
+				bucket.remove(timer);
+				if (expired == null) {
+					expired = new ArrayList<>();
+				}
+				expired.add(timer);
+			} else {
+				timer.rounds--;
+			}
+			timer = next;
+		}
+		if (expired != null) {
+			dispatch(expired);
+		}
+	}
+
+	/**
+	 * 到期的工作平均分成最多 workerCount 批，每批一次交給工作執行緒池。
+	 */
+	private void dispatch(@Nonnull List<Timer<?>> expired) {
+		int batches = Math.min(workerCount, expired.size());
+		int size = (expired.size() + batches - 1) / batches;
+		for (int from = 0; from < expired.size(); from += size) {
+			final List<Timer<?>> batch = expired.subList(from, Math.min(expired.size(), from + size));
+			try {
+				workers.execute(new Runnable() {
+					@Override
+					public void run() {
+						for (Timer<?> timer : batch) {
+							timer.run();
+						}
+					}
+				});
+			} catch (RejectedExecutionException ex) {
+				// 已呼叫 shutdownNow
+				for (Timer<?> timer : batch) {
+					timer.cancel(false);
+				}
+			}
+		}
+	}
+
+	private void cancelAll() {
+		for (Bucket bucket : wheel) {
+			for (Timer<?> timer = bucket.head; timer != null; timer = timer.next) {
+				timer.cancel(false);
+			}
+			bucket.head = null;
+			bucket.tail = null;
+		}
+		for (Timer<?> timer; (timer = added.poll()) != null; ) {
+			timer.cancel(false);
+		}
+		cancelled.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "TimingWheelScheduler(" + tickNanos + " ns x " + wheel.length + ", " + workerCount + " workers)";
+	}
+
+	/**
+	 * 一格中的工作，以雙向鏈結串列在 O(1) 時間內移除。只有 ticker 執行緒存取。
+	 */
+	private static final class Bucket {
+		Timer<?> head;
+		Timer<?> tail;
+
+		void add(@Nonnull Timer<?> timer) {
+			timer.bucket = this;
+			if (head == null) {
+				head = tail = timer;
+			} else {
+				tail.next = timer;
+				timer.prev = tail;
+				tail = timer;
+			}
+		}
+
+		void remove(@Nonnull Timer<?> timer) {
+			if (timer.prev != null) {
+				timer.prev.next = timer.next;
+			} else {
+				head = timer.next;
+			}
+			if (timer.next != null) {
+				timer.next.prev = timer.prev;
+			} else {
+				tail = timer.prev;
+			}
+			timer.prev = null;
+			timer.next = null;
+			timer.bucket = null;
+		}
+	}
+
+	/**
+	 * 排程的工作。
+	 */
+	private final class Timer<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+		/** 大於 0 為固定頻率，小於 0 為固定間隔，0 為只執行一次。 */
+		private final long period;
+		private volatile long deadline;
+
+		// 以下只有 ticker 執行緒存取
+		long rounds;
+		Bucket bucket;
+		Timer<?> prev;
+		Timer<?> next;
+
+		Timer(@Nonnull Runnable runnable, @Nullable V result, long deadline, long period) {
+			super(runnable, result);
+			this.deadline = deadline;
+			this.period = period;
+		}
+
+		Timer(@Nonnull Callable<V> callable, long deadline) {
+			super(callable);
+			this.deadline = deadline;
+			this.period = 0;
+		}
+
+		@Override
+		public boolean isPeriodic() {
+			return period != 0;
+		}
+
+		@Override
+		public long getDelay(@Nonnull TimeUnit unit) {
+			return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public int compareTo(@Nonnull Delayed other) {
+			if (other == this) {
+				return 0;
+			}
+			long diff = other instanceof Timer
+					? deadline - ((Timer<?>) other).deadline
+					: getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean result = super.cancel(mayInterruptIfRunning);
+			if (result) {
+				cancelled.add(this);
+			}
+			return result;
+		}
+
+		@Override
+		public void run() {
+			if (!isPeriodic()) {
+				super.run();
+			} else if (runAndReset() && !shutdown) {
+				deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+				added.add(this);
+				if (shutdown) {
+					cancel(false);
+				}
+			}
+		}
+	}
+}
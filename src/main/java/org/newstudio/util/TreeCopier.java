@@ -0,0 +1,225 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 平行複製目錄。走訪目錄的執行緒負責建立目錄並分派工作，檔案內容由執行緒池複製。
+ * 每個實例只能執行一次。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyTree(Path, Path, TreeCopyOptions)
+ */
+final class TreeCopier extends SimpleFileVisitor<Path> {
+	private static final AtomicInteger COUNTER = new AtomicInteger(1);
+
+	private final Path src;
+	private final Path dest;
+	private final TreeCopyOptions options;
+	private final ParallelExecutor executor;
+
+	private final AtomicInteger copied = new AtomicInteger();
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong();
+	private final ConcurrentHashMap<Path, IOException> failures = new ConcurrentHashMap<>();
+
+	TreeCopier(@Nonnull Path src, @Nonnull Path dest, @Nonnull TreeCopyOptions options) {
+		this.src = src;
+		this.dest = dest;
+		this.options = options;
+		executor = new ParallelExecutor(options.getThreads(), "CopyTree-" + COUNTER.getAndIncrement() + "-%d");
+	}
+
+	@Nonnull
+	TreeCopyResult run() throws IOException {
+		long start = System.nanoTime();
+		try {
+			Files.walkFileTree(src, this);
+		} finally {
+			executor.waitParallel();
+		}
+		return new TreeCopyResult(copied.get(), skipped.get(), bytes.get(), System.nanoTime() - start, failures);
+	}
+
+	@Override
+	public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+		try {
+			Files.createDirectories(target(dir));
+			return FileVisitResult.CONTINUE;
+		} catch (IOException ex) {
+			failures.put(dir, ex);
+			return FileVisitResult.SKIP_SUBTREE;
+		}
+	}
+
+	@Override
+	public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+		Path target = target(file);
+		try {
+			if (attrs.isSymbolicLink()) {
+				copyLink(file, target);
+			} else if (!attrs.isRegularFile()) {
+				skipped.incrementAndGet();
+			} else if (options.isSkipUnchanged() && isUnchanged(attrs, target)) {
+				skipped.incrementAndGet();
+			} else if (attrs.size() >= options.getSplitThreshold()) {
+				copyRanges(file, target, attrs.size(), attrs.lastModifiedTime());
+			} else {
+				copyWhole(file, target);
+			}
+		} catch (IOException ex) {
+			failures.put(file, ex);
+		}
+		return FileVisitResult.CONTINUE;
+	}
+
+	@Override
+	public FileVisitResult visitFileFailed(Path file, IOException exc) {
+		failures.put(file, exc);
+		return FileVisitResult.CONTINUE;
+	}
+
+	@Nonnull
+	private Path target(@Nonnull Path path) {
+		// 以字串接上相對路徑，來源與目的可在不同的 FileSystem
+		return dest.resolve(src.relativize(path).toString());
+	}
+
+	private static boolean isUnchanged(@Nonnull BasicFileAttributes attrs, @Nonnull Path target) throws IOException {
+		BasicFileAttributes targetAttrs;
+		try {
+			targetAttrs = Files.readAttributes(target, BasicFileAttributes.class);
+		} catch (NoSuchFileException ex) {
+			return false;
+		}
+		return targetAttrs.isRegularFile()
+				&& targetAttrs.size() == attrs.size()
+				&& targetAttrs.lastModifiedTime().toMillis() == attrs.lastModifiedTime().toMillis();
+	}
+
+	private void copyLink(@Nonnull final Path file, @Nonnull final Path target) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Files.copy(file, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+					copied.incrementAndGet();
+				} catch (IOException ex) {
+					failures.put(file, ex);
+				}
+			}
+		});
+	}
+
+	private void copyWhole(@Nonnull final Path file, @Nonnull final Path target) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					CopyResult result = FileUtil.doCopyFile(file, target, options.getStrategy(), options.getLimiter());
+					bytes.addAndGet(result.getBytes());
+					copied.incrementAndGet();
+				} catch (IOException ex) {
+					failures.put(file, ex);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 先把目的檔延展到來源大小，再把每段交給執行緒池以 positional I/O 各自複製。
+	 */
+	private void copyRanges(@Nonnull Path file, @Nonnull Path target, long size, @Nonnull FileTime lastModified)
+			throws IOException {
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			out.write(ByteBuffer.allocate(1), size - 1);
+		}
+
+		long rangeSize = options.getRangeSize();
+		final RangedFile ranged = new RangedFile(file, target, (int) ((size + rangeSize - 1) / rangeSize), lastModified);
+		for (long position = 0; position < size; position += rangeSize) {
+			final long from = position;
+			final long count = Math.min(rangeSize, size - position);
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					ranged.copy(from, count);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 分段複製中的檔案，最後一段完成時設定最後修改時間並記錄結果。
+	 */
+	private final class RangedFile {
+		private final Path file;
+		private final Path target;
+		private final FileTime lastModified;
+		private final AtomicInteger remaining;
+		private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+		RangedFile(@Nonnull Path file, @Nonnull Path target, int ranges, @Nonnull FileTime lastModified) {
+			this.file = file;
+			this.target = target;
+			this.lastModified = lastModified;
+			remaining = new AtomicInteger(ranges);
+		}
+
+		void copy(long position, long count) {
+			try {
+				if (failure.get() == null) {
+					transfer(position, count);
+				}
+			} catch (IOException ex) {
+				failure.compareAndSet(null, ex);
+			}
+			if (remaining.decrementAndGet() == 0) {
+				finish();
+			}
+		}
+
+		private void transfer(long position, long count) throws IOException {
+			try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+			     FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+				CopyStrategy strategy = options.getStrategy().resolve(count);
+				long done = strategy.transfer(in, out, position, count, options.getLimiter());
+				bytes.addAndGet(done);
+				if (done < count) {
+					throw new IOException("The source was truncated while copying: " + file);
+				}
+			}
+		}
+
+		private void finish() {
+			IOException ex = failure.get();
+			if (ex == null) {
+				try {
+					Files.setLastModifiedTime(target, lastModified);
+					copied.incrementAndGet();
+					return;
+				} catch (IOException e) {
+					ex = e;
+				}
+			}
+			failures.put(file, ex);
+		}
+	}
+}
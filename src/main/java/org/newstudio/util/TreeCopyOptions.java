@@ -0,0 +1,115 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * 目錄複製設定。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyTree(java.nio.file.Path, java.nio.file.Path, TreeCopyOptions)
+ */
+public final class TreeCopyOptions {
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private CopyStrategy strategy = CopyStrategy.AUTO;
+	private boolean skipUnchanged = true;
+	private long splitThreshold = 64L << 20;
+	private long rangeSize = 16L << 20;
+	private BandwidthLimiter limiter;
+
+	/**
+	 * 指定同時複製的執行緒數，預設為 CPU 核心數。
+	 *
+	 * @param count 執行緒數
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public TreeCopyOptions withThreads(int count) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("Threads must be positive.");
+		}
+		threads = count;
+		return this;
+	}
+
+	/**
+	 * 指定複製方式，預設為 {@link CopyStrategy#AUTO}。
+	 *
+	 * @param copyStrategy 複製方式
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public TreeCopyOptions withStrategy(@Nonnull CopyStrategy copyStrategy) {
+		strategy = Objects.requireNonNull(copyStrategy, "The strategy is null.");
+		return this;
+	}
+
+	/**
+	 * 指定是否略過大小及最後修改時間都與來源相同的目的檔，預設為略過。
+	 *
+	 * @param skip 是否略過
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public TreeCopyOptions withSkipUnchanged(boolean skip) {
+		skipUnchanged = skip;
+		return this;
+	}
+
+	/**
+	 * 指定大檔案的分段方式。大小達到 threshold 的檔案會切成每段 size bytes 平行複製。
+	 * 預設為 64 MB 以上的檔案每 16 MB 一段。
+	 *
+	 * @param threshold 需要分段的檔案大小
+	 * @param size 每段大小
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public TreeCopyOptions withRanges(long threshold, long size) {
+		if (threshold <= 0 || size <= 0) {
+			throw new IllegalArgumentException("Threshold and size must be positive.");
+		}
+		splitThreshold = threshold;
+		rangeSize = size;
+		return this;
+	}
+
+	/**
+	 * 指定頻寬限制器，所有檔案共用同一個限制，預設不限制。
+	 *
+	 * @param bandwidthLimiter 頻寬限制器，null 表示不限制
+	 * @return 設定鍊 (自身物件)
+	 */
+	@Nonnull
+	public TreeCopyOptions withLimiter(@Nullable BandwidthLimiter bandwidthLimiter) {
+		limiter = bandwidthLimiter;
+		return this;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	@Nonnull
+	public CopyStrategy getStrategy() {
+		return strategy;
+	}
+
+	public boolean isSkipUnchanged() {
+		return skipUnchanged;
+	}
+
+	public long getSplitThreshold() {
+		return splitThreshold;
+	}
+
+	public long getRangeSize() {
+		return rangeSize;
+	}
+
+	@Nullable
+	public BandwidthLimiter getLimiter() {
+		return limiter;
+	}
+}
@@ -0,0 +1,90 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目錄複製結果。Immutable。
+ *
+ * @author Scribe Huang
+ * @see FileUtil#copyTree(Path, Path, TreeCopyOptions)
+ */
+public final class TreeCopyResult {
+	private final int copiedFiles;
+	private final int skippedFiles;
+	private final long bytes;
+	private final long elapsedNanos;
+	private final SortedMap<Path, IOException> failures;
+
+	TreeCopyResult(int copiedFiles, int skippedFiles, long bytes, long elapsedNanos,
+	               @Nonnull Map<Path, IOException> failures) {
+		this.copiedFiles = copiedFiles;
+		this.skippedFiles = skippedFiles;
+		this.bytes = bytes;
+		this.elapsedNanos = elapsedNanos;
+		this.failures = Collections.unmodifiableSortedMap(new TreeMap<>(failures));
+	}
+
+	/**
+	 * @return 是否所有檔案都複製成功或略過
+	 */
+	public boolean isSuccess() {
+		return failures.isEmpty();
+	}
+
+	/**
+	 * @return 複製成功的檔案數
+	 */
+	public int getCopiedFiles() {
+		return copiedFiles;
+	}
+
+	/**
+	 * @return 因未變更而略過的檔案數
+	 */
+	public int getSkippedFiles() {
+		return skippedFiles;
+	}
+
+	/**
+	 * @return 複製的 bytes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @param unit 時間單位
+	 * @return 花費時間
+	 */
+	public long getElapsed(@Nonnull TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return 每秒複製的 bytes，花費時間為 0 時回傳 0
+	 */
+	public double bytesPerSecond() {
+		return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * @return 複製失敗的來源路徑及原因，依路徑排序
+	 */
+	@Nonnull
+	public SortedMap<Path, IOException> getFailures() {
+		return failures;
+	}
+
+	@Override
+	public String toString() {
+		return "TreeCopyResult(copied " + copiedFiles + ", skipped " + skippedFiles
+				+ ", failed " + failures.size() + ", " + bytes + " bytes)";
+	}
+}
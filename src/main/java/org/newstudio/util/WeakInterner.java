@@ -0,0 +1,91 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * 以 weak reference 保存標準實例的 interner。Thread-safe。
+ *
+ * 依雜湊值分散到數個各自加鎖的 {@link WeakHashMap}，不同執行緒通常不會競爭同一個鎖。
+ * 沒有其他地方參考的標準實例會被 GC 回收，不會造成記憶體洩漏。
+ *
+ * @param <T> 元素型態，需正確實作 equals 及 hashCode
+ * @author Scribe Huang
+ */
+final class WeakInterner<T> {
+	private final int mask;
+	private final Segment<T>[] segments;
+
+	@SuppressWarnings("unchecked")
+	WeakInterner() {
+		int stripes = StripedCounter.stripes();
+		mask = stripes - 1;
+		segments = (Segment<T>[]) new Segment<?>[stripes];
+		for (int i = 0; i < stripes; i++) {
+			segments[i] = new Segment<>();
+		}
+	}
+
+	/**
+	 * @param value 要查詢的值
+	 * @return 與 value 相等的標準實例，沒有時為 null
+	 */
+	@Nullable
+	T find(@Nonnull T value) {
+		Segment<T> segment = segmentFor(value);
+		synchronized (segment) {
+			return segment.get(value);
+		}
+	}
+
+	/**
+	 * @param value 要標準化的值
+	 * @return 與 value 相等的標準實例；沒有時 value 成為標準實例並回傳
+	 */
+	@Nonnull
+	T intern(@Nonnull T value) {
+		Segment<T> segment = segmentFor(value);
+		synchronized (segment) {
+			T canonical = segment.get(value);
+			if (canonical != null) {
+				return canonical;
+			}
+			segment.map.put(value, new WeakReference<>(value));
+			return value;
+		}
+	}
+
+	/**
+	 * @return 目前保存的實例數，包含尚未清除的已回收實例
+	 */
+	int size() {
+		int size = 0;
+		for (Segment<T> segment : segments) {
+			synchronized (segment) {
+				size += segment.map.size();
+			}
+		}
+		return size;
+	}
+
+	@Nonnull
+	private Segment<T> segmentFor(@Nonnull T value) {
+		// 取高位元，WeakHashMap 內部使用低位元
+		return segments[(int) (PairHash.mix(value.hashCode()) >>> 32) & mask];
+	}
+
+	private static final class Segment<T> {
+		@GuardedBy("this")
+		final WeakHashMap<T, WeakReference<T>> map = new WeakHashMap<>();
+
+		@GuardedBy("this")
+		@Nullable
+		T get(@Nonnull T value) {
+			WeakReference<T> ref = map.get(value);
+			return ref == null ? null : ref.get();
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.TimeZone;
+
+/**
+ * 預設時區目前偏移量的快取。Thread-safe，且不使用鎖。
+ *
+ * 快取以不可變的快照保存目前偏移量及其有效區間 (到下一個日光節約時間轉換點為止)，
+ * 命中時只需讀取一次 volatile 欄位並比對時間，不建立 Calendar 物件，也不取得預設時區 (會複製物件)。
+ *
+ * 有效區間另外限制在查詢時間前後 {@value #ZONE_CHECK_MILLIS} 毫秒內，超出時才重新取得預設時區。
+ * 因此預設時區被 {@link TimeZone#setDefault} 改變後，查詢目前時間最多約一秒後會自動重新計算；
+ * 需要立即生效，或反覆查詢同一段時間時，請在改變預設時區後呼叫 {@link #invalidate()}。
+ *
+ * @author Scribe Huang
+ */
+public final class ZoneOffsetCache {
+	/** 重新取得預設時區的間隔 (以查詢時間計)。 */
+	static final long ZONE_CHECK_MILLIS = 1000;
+
+	private static volatile Snapshot snapshot = new Snapshot(1, 0, 0);
+	private static final StripedCounter HITS = new StripedCounter();
+	private static final StripedCounter MISSES = new StripedCounter();
+
+	/**
+	 * Util 類別不允許直接初始化。
+	 */
+	private ZoneOffsetCache() {
+		throw new UnsupportedOperationException("ZoneOffsetCache class cannot be initiated directly.");
+	}
+
+	/**
+	 * 取得 UTC 與預設時區目前的差異毫秒數。含日光節約時間 (有的話)
+	 *
+	 * @return 差異毫秒數
+	 */
+	public static int currentOffsetMillis() {
+		return offsetMillis(System.currentTimeMillis());
+	}
+
+	/**
+	 * 取得 UTC 與預設時區在某時間點的差異毫秒數。含日光節約時間 (有的話)
+	 * 適合時間點接近目前時間或彼此相近的查詢。
+	 *
+	 * @param now 時間點
+	 * @return 差異毫秒數
+	 */
+	public static int offsetMillis(long now) {
+		Snapshot current = snapshot;
+		if (now >= current.validFrom && now < current.validUntil) {
+			HITS.increment();
+			return current.offset;
+		}
+		MISSES.increment();
+		return refresh(now).offset;
+	}
+
+	/**
+	 * 清除快取，下次查詢時重新取得預設時區並重新計算。
+	 * 以 {@link TimeZone#setDefault} 改變預設時區後呼叫，可立即生效。
+	 */
+	public static void invalidate() {
+		snapshot = new Snapshot(1, 0, 0);
+	}
+
+	/**
+	 * @return 快取命中次數
+	 */
+	public static long hitCount() {
+		return HITS.sum();
+	}
+
+	/**
+	 * @return 快取未命中次數
+	 */
+	public static long missCount() {
+		return MISSES.sum();
+	}
+
+	/**
+	 * 將命中及未命中次數歸零。
+	 */
+	public static void resetStatistics() {
+		HITS.reset();
+		MISSES.reset();
+	}
+
+	@Nonnull
+	private static Snapshot refresh(long now) {
+		ZoneOffsetTable.Cursor cursor = new ZoneOffsetTable.Cursor(ZoneOffsetTable.of(TimeZone.getDefault()));
+		int offset = cursor.offsetAt(now);
+		// 溢位時 (now 接近 Long.MIN_VALUE 或 Long.MAX_VALUE) 區間為空，只會每次重新計算
+		Snapshot fresh = new Snapshot(
+			Math.max(cursor.runStart(), now - ZONE_CHECK_MILLIS),
+			Math.min(cursor.runEnd(), now + ZONE_CHECK_MILLIS),
+			offset
+		);
+		snapshot = fresh;
+		return fresh;
+	}
+
+	/**
+	 * 預設時區在一段時間內的偏移量。不可變。
+	 */
+	private static final class Snapshot {
+		private final long validFrom;
+		private final long validUntil;
+		private final int offset;
+
+		Snapshot(long validFrom, long validUntil, int offset) {
+			this.validFrom = validFrom;
+			this.validUntil = validUntil;
+			this.offset = offset;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package org.newstudio.util;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 時區偏移量快取表。Thread-safe。
+ *
+ * 以約一年為一個區段，預先找出區段內所有時區偏移量 (含日光節約時間) 的轉換點，
+ * 之後查詢只需比對陣列，不需建立 Calendar 物件。
+ *
+ * @author Scribe Huang
+ */
+final class ZoneOffsetTable {
+	/** 區段長度 2^35 毫秒，約 397 天。 */
+	private static final int BLOCK_SHIFT = 35;
+	private static final long BLOCK_MILLIS = 1L << BLOCK_SHIFT;
+	/** 掃瞄轉換點的步距，間隔小於此值的兩個轉換點會被視為沒有轉換。 */
+	private static final long SCAN_STEP_MILLIS = 6 * 3600000L;
+	/** 每個時區快取的區段數，必須是 2 的次方。512 個區段約涵蓋 550 年。 */
+	private static final int SLOTS = 512;
+	private static final long MILLISECONDS_PER_DAY = 86400000;
+
+	private static final ConcurrentMap<TimeZone, ZoneOffsetTable> TABLES =
+		new ConcurrentHashMap<>();
+
+	private final TimeZone zone;
+	private final AtomicReferenceArray<Block> blocks = new AtomicReferenceArray<>(SLOTS);
+
+	private ZoneOffsetTable(@Nonnull TimeZone zone) {
+		this.zone = zone;
+	}
+
+	/**
+	 * 取得時區的偏移量快取表。
+	 *
+	 * @param zone 時區
+	 * @return 快取表
+	 */
+	@Nonnull
+	static ZoneOffsetTable of(@Nonnull TimeZone zone) {
+		ZoneOffsetTable table = TABLES.get(zone);
+		if (table == null) {
+			// TimeZone 可被修改，因此保存複本
+			TimeZone copy = (TimeZone) zone.clone();
+			table = new ZoneOffsetTable(copy);
+			ZoneOffsetTable existing = TABLES.putIfAbsent(copy, table);
+			if (existing != null) {
+				table = existing;
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * 取得某個 UTC 時間點的時區偏移量。含日光節約時間 (有的話)
+	 *
+	 * @param utcMillis UTC 毫秒
+	 * @return 偏移毫秒數
+	 */
+	int offsetAt(long utcMillis) {
+		Block block = block(utcMillis);
+		return block.offsets[block.indexOf(utcMillis)];
+	}
+
+	/**
+	 * 將本地時間 (以 UTC 表示的牆上時間) 轉回 UTC 時間點。
+	 * 重複或不存在的本地時間 (日光節約時間結束或開始時) 採用較小的偏移量，與 Calendar 設定欄位時相同。
+	 *
+	 * @param localMillis 本地時間毫秒
+	 * @return UTC 毫秒
+	 */
+	long toUtc(long localMillis) {
+		// 真正的 UTC 時間點必在前後一天內
+		int early = offsetAt(localMillis - MILLISECONDS_PER_DAY);
+		int late = offsetAt(localMillis + MILLISECONDS_PER_DAY);
+		if (early == late) {
+			return localMillis - early;
+		}
+		boolean earlyValid = offsetAt(localMillis - early) == early;
+		boolean lateValid = offsetAt(localMillis - late) == late;
+		if (earlyValid != lateValid) {
+			return localMillis - (earlyValid ? early : late);
+		}
+		return localMillis - Math.min(early, late);
+	}
+
+	/**
+	 * 將 cursor 移到包含 utcMillis 的固定偏移量區間。
+	 */
+	private void locate(long utcMillis, @Nonnull Cursor cursor) {
+		Block block = block(utcMillis);
+		int i = block.indexOf(utcMillis);
+		long blockStart = block.index << BLOCK_SHIFT;
+		cursor.start = i == 0 ? blockStart : block.transitions[i - 1];
+		cursor.end = i == block.transitions.length ? blockStart + BLOCK_MILLIS : block.transitions[i];
+		cursor.offset = block.offsets[i];
+	}
+
+	@Nonnull
+	private Block block(long utcMillis) {
+		long index = utcMillis >> BLOCK_SHIFT;
+		int slot = (int) index & (SLOTS - 1);
+		Block block = blocks.get(slot);
+		if (block == null || block.index != index) {
+			block = scan(index);
+			blocks.set(slot, block);
+		}
+		return block;
+	}
+
+	@Nonnull
+	private Block scan(long index) {
+		long start = index << BLOCK_SHIFT;
+		long last = start + (BLOCK_MILLIS - 1);
+		long[] transitions = new long[4];
+		int[] offsets = new int[5];
+		int count = 0;
+
+		int current = zone.getOffset(start);
+		offsets[0] = current;
+		long lo = start;
+		while (lo < last) {
+			long hi = lo + Math.min(SCAN_STEP_MILLIS, last - lo);
+			if (zone.getOffset(hi) == current) {
+				lo = hi;
+				continue;
+			}
+			// 二分搜尋轉換點：lo 為舊偏移量，hi 為新偏移量
+			while (hi - lo > 1) {
+				long mid = lo + (hi - lo) / 2;
+				if (zone.getOffset(mid) == current) {
+					lo = mid;
+				} else {
+					hi = mid;
+				}
+			}
+			if (count == transitions.length) {
+				transitions = Arrays.copyOf(transitions, count * 2);
+				offsets = Arrays.copyOf(offsets, count * 2 + 1);
+			}
+			current = zone.getOffset(hi);
+			transitions[count++] = hi;
+			offsets[count] = current;
+			lo = hi;
+		}
+		return new Block(
+			index, Arrays.copyOf(transitions, count), Arrays.copyOf(offsets, count + 1)
+		);
+	}
+
+	/**
+	 * 一個區段的轉換點。不可變。
+	 */
+	private static final class Block {
+		private final long index;
+		private final long[] transitions;
+		private final int[] offsets;
+
+		Block(long index, long[] transitions, int[] offsets) {
+			this.index = index;
+			this.transitions = transitions;
+			this.offsets = offsets;
+		}
+
+		int indexOf(long utcMillis) {
+			int i = 0;
+			while (i < transitions.length && utcMillis >= transitions[i]) {
+				i++;
+			}
+			return i;
+		}
+	}
+
+	/**
+	 * 逐筆處理時間序列時，記住目前所在的固定偏移量區間，區間內查詢不需再查表。非 Thread-safe。
+	 */
+	static final class Cursor {
+		private final ZoneOffsetTable table;
+		private long start = 1;
+		private long end = 0;
+		private int offset;
+
+		Cursor(@Nonnull ZoneOffsetTable table) {
+			this.table = table;
+		}
+
+		/**
+		 * @see ZoneOffsetTable#offsetAt(long)
+		 */
+		int offsetAt(long utcMillis) {
+			if (utcMillis < start || utcMillis >= end) {
+				table.locate(utcMillis, this);
+			}
+			return offset;
+		}
+
+		/**
+		 * @return 目前區間起點 (含)
+		 */
+		long runStart() {
+			return start;
+		}
+
+		/**
+		 * @return 目前區間終點 (不含)，通常是下一個轉換點
+		 */
+		long runEnd() {
+			return end;
+		}
+
+		/**
+		 * 時間點是否在目前區間內，且與區間兩端相距超過一天。
+		 * 此時以目前偏移量換算的本地時間必定唯一，不會落在重複或不存在的時段。
+		 */
+		boolean isSafe(long utcMillis) {
+			return utcMillis - start >= MILLISECONDS_PER_DAY && end - utcMillis > MILLISECONDS_PER_DAY;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * 由範本產生 primitive pair 類別 (*Pair 及 *PairList)。
+ *
+ * 用法：./gradlew generatePairs
+ * 參數：範本目錄 輸出目錄 [--check]
+ * 加上 --check 時只比對輸出目錄中的檔案是否與範本一致，不一致時失敗。
+ *
+ * @author Scribe Huang
+ */
+import groovy.text.SimpleTemplateEngine
+
+def templateDir = new File(args[0])
+def outputDir = new File(args[1])
+def checkOnly = args.length > 2 && args[2] == '--check'
+
+def types = [
+    Int   : [name: 'Int', prim: 'int', boxed: 'Integer'],
+    Long  : [name: 'Long', prim: 'long', boxed: 'Long'],
+    Double: [name: 'Double', prim: 'double', boxed: 'Double'],
+]
+// 每個組合的對調組合 (swap 的回傳型態) 也必須在清單中
+def combinations = [
+    ['Int', 'Int'],
+    ['Int', 'Long'],
+    ['Long', 'Int'],
+    ['Long', 'Long'],
+    ['Long', 'Double'],
+    ['Double', 'Long'],
+]
+// double 以 bit pattern 比較及計算雜湊值，與 Double.equals 相同
+def bits = { type, expr -> type.prim == 'double' ? "Double.doubleToLongBits(${expr})" : expr }
+
+def engine = new SimpleTemplateEngine()
+def templates = [
+    Pair    : engine.createTemplate(new File(templateDir, 'PrimitivePair.java.template').getText('UTF-8')),
+    PairList: engine.createTemplate(new File(templateDir, 'PrimitivePairList.java.template').getText('UTF-8')),
+]
+
+def stale = []
+combinations.each { combination ->
+    def a = types[combination[0]]
+    def b = types[combination[1]]
+    def binding = [
+        a    : a,
+        b    : b,
+        pair : "${a.name}${b.name}Pair".toString(),
+        list : "${a.name}${b.name}PairList".toString(),
+        swap : "${b.name}${a.name}Pair".toString(),
+        bits : bits,
+    ]
+    templates.each { suffix, template ->
+        def file = new File(outputDir, "${a.name}${b.name}${suffix}.java")
+        def text = template.make(binding).toString()
+        if (checkOnly) {
+            if (!file.exists() || file.getText('UTF-8') != text) {
+                stale << file.name
+            }
+        } else {
+            file.setText(text, 'UTF-8')
+        }
+    }
+}
+if (stale) {
+    throw new IllegalStateException("Generated pair classes differ from templates, run ./gradlew generatePairs: ${stale}")
+}
@@ -0,0 +1,80 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+/**
+ * BandwidthLimiterTest.
+ *
+ * @author Scribe Huang
+ */
+class BandwidthLimiterTest extends Specification {
+    def "fixed rate limits copy"() {
+        given:
+        def limiter = BandwidthLimiter.fixed(4 << 20)
+        def src = Files.createTempFile("BandwidthLimiterTest", ".tmp")
+        def dest = Files.createTempFile("BandwidthLimiterTest", ".tmp")
+        Files.write(src, new byte[2 << 20])
+
+        when:
+        def start = System.nanoTime()
+        def result = FileUtil.copyFile(src, dest, CopyStrategy.AUTO, limiter)
+        def elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+        then:
+        result.bytes == 2 << 20
+        elapsed >= 400
+
+        cleanup:
+        Files.delete(src)
+        Files.delete(dest)
+    }
+
+    def "max rate adjustable at runtime"() {
+        given:
+        def limiter = BandwidthLimiter.fixed(1 << 20)
+
+        when:
+        limiter.maxRate = 8 << 20
+
+        then:
+        limiter.maxRate == 8 << 20
+        limiter.rate == 8 << 20
+    }
+
+    def "adaptive backs off on slow writes and recovers"() {
+        given:
+        def limiter = BandwidthLimiter.adaptive(64 << 20, 1 << 20, 10, TimeUnit.MILLISECONDS)
+
+        when:
+        3.times {
+            Thread.sleep(110)
+            limiter.recordWrite(TimeUnit.MILLISECONDS.toNanos(50))
+        }
+        def slowed = limiter.rate
+        3.times {
+            Thread.sleep(110)
+            limiter.recordWrite(TimeUnit.MILLISECONDS.toNanos(1))
+        }
+
+        then:
+        slowed == 8 << 20
+        limiter.rate > slowed
+        limiter.rate <= limiter.maxRate
+    }
+
+    def "deny invalid rates"() {
+        when:
+        BandwidthLimiter.adaptive(max, min, 1, TimeUnit.MILLISECONDS)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        max | min
+        0   | 0
+        1   | 2
+    }
+}
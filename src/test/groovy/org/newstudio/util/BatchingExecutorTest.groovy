@@ -0,0 +1,152 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * BatchingExecutorTest.
+ */
+class BatchingExecutorTest extends Specification {
+    def executor = new ParallelExecutor(2, "Batching-%d")
+
+    def cleanup() {
+        executor.waitParallel()
+    }
+
+    def "execute in batches from many producers"() {
+        given:
+        def batching = executor.batching(10, 1, TimeUnit.SECONDS)
+        def counter = new AtomicInteger()
+
+        when:
+        (1..4).collect {
+            Thread.start { 1005.times { batching.execute { counter.incrementAndGet() } } }
+        }*.join()
+        batching.await()
+
+        then:
+        counter.get() == 4020
+        batching.completedCount == 4020
+        batching.batchSizes.count == 404
+        batching.batchSizes.snapshot()[Histogram.bucketOf(10)] == 400
+        batching.tasksPerSecond > 0
+
+        cleanup:
+        batching.shutdown()
+    }
+
+    def "flush partial batch after max delay"() {
+        given:
+        def batching = executor.batching(100, 10, TimeUnit.MILLISECONDS)
+        def counter = new AtomicInteger()
+
+        when:
+        3.times { batching.execute { counter.incrementAndGet() } }
+        def deadline = System.currentTimeMillis() + 5000
+        while (counter.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+
+        then:
+        counter.get() == 3
+        batching.batchSizes.count == 1
+
+        cleanup:
+        batching.shutdown()
+    }
+
+    def "failure in batch does not skip other tasks"() {
+        given:
+        def batching = executor.batching(3, 1, TimeUnit.SECONDS)
+        def counter = new AtomicInteger()
+
+        when:
+        batching.execute { throw new IllegalStateException("first") }
+        batching.execute { counter.incrementAndGet() }
+        batching.execute { throw new IllegalArgumentException("second") }
+        batching.await()
+
+        then:
+        def ex = thrown(ExecutionException)
+        ex.cause instanceof IllegalStateException
+        ex.cause.suppressed[0] instanceof IllegalArgumentException
+        counter.get() == 1
+
+        cleanup:
+        batching.shutdown()
+    }
+
+    def "reject after shutdown"() {
+        given:
+        def batching = executor.batching(10, 1, TimeUnit.SECONDS)
+        def counter = new AtomicInteger()
+
+        when:
+        batching.execute { counter.incrementAndGet() }
+        batching.shutdown()
+        executor.await()
+
+        then:
+        batching.shutdown
+        counter.get() == 1
+
+        when:
+        batching.execute {}
+
+        then:
+        thrown(RejectedExecutionException)
+    }
+
+    def "tasks accepted during shutdown all run"() {
+        given:
+        def batching = executor.batching(100, 1, TimeUnit.SECONDS)
+        def accepted = new AtomicInteger()
+        def counter = new AtomicInteger()
+        def producers = (1..4).collect {
+            Thread.start {
+                try {
+                    while (true) {
+                        batching.execute { counter.incrementAndGet() }
+                        accepted.incrementAndGet()
+                    }
+                } catch (RejectedExecutionException ignored) {
+                }
+            }
+        }
+
+        when:
+        Thread.sleep(50)
+        batching.shutdown()
+        producers*.join()
+        executor.await()
+
+        then:
+        accepted.get() > 0
+        counter.get() == accepted.get()
+    }
+
+    def "batches rejected by a shut down pool are reported"() {
+        given:
+        def batching = executor.batching(100, 10, TimeUnit.MILLISECONDS)
+        3.times { batching.execute {} }
+
+        when:
+        executor.shutdown()
+        Thread.sleep(50)
+        batching.await()
+
+        then: "定時送出時被拒絕，由 await 回報"
+        def ex = thrown(ExecutionException)
+        ex.cause instanceof RejectedExecutionException
+
+        when:
+        batching.execute {}
+
+        then:
+        thrown(RejectedExecutionException)
+    }
+}
@@ -0,0 +1,156 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.zip.CRC32
+
+import static org.newstudio.util.ChecksumCopyResult.Action.*
+
+/**
+ * ChecksumIndexTest.
+ *
+ * @author Scribe Huang
+ */
+class ChecksumIndexTest extends Specification {
+    def dir = Files.createTempDirectory("ChecksumIndexTest")
+    def data = new byte[(1 << 20) + 9]
+    def src = dir.resolve("src.bin")
+
+    def setup() {
+        new Random(0).nextBytes(data)
+        Files.write(src, data)
+    }
+
+    def cleanup() {
+        dir.toFile().deleteDir()
+    }
+
+    def "copy computes checksum, then skips and links"() {
+        given:
+        def index = ChecksumIndex.inMemory()
+        def crc = new CRC32()
+        crc.update(data)
+
+        when:
+        def first = FileUtil.copyWithChecksum(src, dir.resolve("a"), index, true)
+        def again = FileUtil.copyWithChecksum(src, dir.resolve("a"), index, true)
+        def linked = FileUtil.copyWithChecksum(src, dir.resolve("b"), index, true)
+        def copied = FileUtil.copyWithChecksum(src, dir.resolve("c"), index, false)
+
+        then:
+        first.action == COPIED
+        first.checksum == crc.value
+        first.bytes == data.length
+        again.action == SKIPPED
+        linked.action == LINKED
+        copied.action == COPIED
+        ["a", "b", "c"].every { Files.readAllBytes(dir.resolve(it)) == data }
+    }
+
+    def "modified destination is copied again"() {
+        given:
+        def index = ChecksumIndex.inMemory()
+        def dest = dir.resolve("a")
+        FileUtil.copyWithChecksum(src, dest, index, false)
+
+        when:
+        Files.write(dest, [1] as byte[])
+        def result = FileUtil.copyWithChecksum(src, dest, index, false)
+
+        then:
+        result.action == COPIED
+        Files.readAllBytes(dest) == data
+    }
+
+    def "copy over a hard link leaves the other links unchanged"() {
+        given:
+        def index = ChecksumIndex.inMemory()
+        def other = dir.resolve("other.bin")
+        def otherData = "other content".bytes
+        Files.write(other, otherData)
+        FileUtil.copyWithChecksum(src, dir.resolve("a"), index, true)
+        FileUtil.copyWithChecksum(src, dir.resolve("b"), index, true)
+
+        when:
+        def result = FileUtil.copyWithChecksum(other, dir.resolve("b"), index, true)
+
+        then:
+        result.action == COPIED
+        Files.readAllBytes(dir.resolve("b")) == otherData
+        Files.readAllBytes(dir.resolve("a")) == data
+        Files.readAllBytes(src) == data
+        dir.toFile().list().findAll { it.endsWith(".tmp") }.empty
+    }
+
+    def "link does not touch unrelated files next to the destination"() {
+        given:
+        def index = ChecksumIndex.inMemory()
+        def unrelated = dir.resolve("b.link")
+        Files.write(unrelated, "keep me".bytes)
+        FileUtil.copyWithChecksum(src, dir.resolve("a"), index, true)
+
+        when:
+        def result = FileUtil.copyWithChecksum(src, dir.resolve("b"), index, true)
+
+        then:
+        result.action == LINKED
+        Files.readAllBytes(unrelated) == "keep me".bytes
+        dir.toFile().list().findAll { it.endsWith(".tmp") }.empty
+    }
+
+    def "checksum collision is neither linked nor skipped"() {
+        given:
+        def index = ChecksumIndex.inMemory()
+        def crc = new CRC32()
+        crc.update(data)
+        def colliding = dir.resolve("colliding.bin")
+        def dest = dir.resolve("a")
+        [colliding, dest].each {
+            Files.write(it, new byte[data.length])
+            index.record(it, Files.readAttributes(it, BasicFileAttributes), crc.value)
+        }
+        index.record(src, Files.readAttributes(src, BasicFileAttributes), crc.value)
+
+        when:
+        def skipped = FileUtil.copyWithChecksum(src, dest, index, true)
+        def linked = FileUtil.copyWithChecksum(src, dir.resolve("b"), index, true)
+
+        then:
+        skipped.action == COPIED
+        linked.action == COPIED
+        Files.readAllBytes(dest) == data
+        Files.readAllBytes(dir.resolve("b")) == data
+        Files.readAllBytes(colliding) == new byte[data.length]
+    }
+
+    def "index survives save and open"() {
+        given:
+        def file = dir.resolve("index")
+        def index = ChecksumIndex.open(file)
+        def checksum = FileUtil.copyWithChecksum(src, dir.resolve("a"), index, false).checksum
+
+        when:
+        index.save()
+        def reopened = ChecksumIndex.open(file)
+
+        then:
+        reopened.size() == 2
+        reopened.lookup(src) == checksum
+        reopened.lookup(dir.resolve("a")) == checksum
+        reopened.lookup(dir.resolve("missing")) == ChecksumIndex.UNKNOWN
+    }
+
+    def "open deny malformed index"() {
+        given:
+        def file = dir.resolve("index")
+        Files.write(file, "not an index".bytes)
+
+        when:
+        ChecksumIndex.open(file)
+
+        then:
+        thrown(IOException)
+    }
+}
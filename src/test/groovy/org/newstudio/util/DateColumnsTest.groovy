@@ -0,0 +1,102 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.util.concurrent.ForkJoinPool
+
+/**
+ * DateColumnsTest.
+ *
+ * @author Scribe Huang
+ */
+class DateColumnsTest extends Specification {
+    def final static TZ = TimeZone.getTimeZone("America/New_York")
+    // 2016-03-13 02:00 EST 前後每 37 分鐘一筆，跨越日光節約時間轉換點
+    def final static long[] TIMES = (-200..200).collect { 1457852400000L + it * 2220000L } as long[]
+
+    def "can't init directly"() {
+        when:
+        new DateColumns()
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "same as DateUtil.Millis"() {
+        given:
+        def out = new long[TIMES.length]
+
+        when:
+        bulk(TIMES, out)
+
+        then:
+        (0..<TIMES.length).every { out[it] == single(TIMES[it]) }
+
+        where:
+        bulk                                                              | single
+        { long[] i, long[] o -> DateColumns.truncateToDay(i, o, TZ) }     | { long t -> DateUtil.Millis.startOfDay(t, TZ) }
+        { long[] i, long[] o -> DateColumns.truncateToWeek(i, o, TZ) }    | { long t -> DateUtil.Millis.startOfWeek(t, TZ) }
+        { long[] i, long[] o -> DateColumns.truncateToMonth(i, o, TZ) }   | { long t -> DateUtil.Millis.startOfMonth(t, TZ) }
+        { long[] i, long[] o -> DateColumns.incDay(i, 3, o, TZ) }         | { long t -> DateUtil.Millis.incDay(t, 3, TZ) }
+        { long[] i, long[] o -> DateColumns.incMonth(i, -1, o, TZ) }      | { long t -> DateUtil.Millis.incMonth(t, -1, TZ) }
+    }
+
+    def "incMonth in a repeated hour same as DateUtil.Millis"() {
+        given:
+        // 2016-11-06 01:00 EDT 起每 10 分鐘一筆，跨越重複的 01:00 ~ 02:00
+        long[] times = (0..18).collect { 1478408400000L + it * 600000L } as long[]
+        def out = new long[times.length]
+
+        when:
+        DateColumns.incMonth(times, month, out, TZ)
+
+        then:
+        (0..<times.length).every { out[it] == DateUtil.Millis.incMonth(times[it], month, TZ) }
+
+        where:
+        month << [0, 12, -12]
+    }
+
+    def "in place and parallel"() {
+        given:
+        def pool = new ForkJoinPool(4)
+        def values = new long[DateColumns.PARALLEL_THRESHOLD * 3]
+        values.length.times { values[it] = 1356998400000L + it * 600000L }
+        def expected = values.collect { DateUtil.Millis.startOfDay(it, TZ) }
+
+        when:
+        DateColumns.truncateToDay(values, values, TZ, pool)
+
+        then:
+        values as List == expected
+
+        cleanup:
+        pool.shutdown()
+    }
+
+    def "test daysBetween"() {
+        given:
+        long[] a = [0, 86400000 * 31L, 86399999]
+        long[] b = [86400000 * 31L, 0, 0]
+        def out = new long[3]
+
+        when:
+        DateColumns.daysBetween(a, b, out)
+
+        then:
+        out as List == [31L, 31L, 0L]
+    }
+
+    def "deny short columns"() {
+        when:
+        DateColumns.daysBetween(new long[2], b, out)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        b           | out
+        new long[1] | new long[2]
+        new long[2] | new long[1]
+    }
+}
@@ -0,0 +1,112 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.text.SimpleDateFormat
+
+/**
+ * DateFormatterTest.
+ *
+ * @author Scribe Huang
+ */
+class DateFormatterTest extends Specification {
+    def final static TZ = TimeZone.getTimeZone("America/New_York")
+
+    def "format same as SimpleDateFormat"() {
+        given:
+        def sdf = new SimpleDateFormat(pattern)
+        sdf.timeZone = TZ
+        def formatter = DateFormatter.of(pattern, TZ)
+
+        expect:
+        [0L, 1356998400000L, 1457852399999L, 1457852400000L, 1478412000000L, -1000000000000L].every {
+            formatter.format(it) == sdf.format(new Date(it))
+        }
+
+        where:
+        pattern << ["yyyy-MM-dd HH:mm:ss", "yyyyMMdd'T'HHmmss.SSS", "dd/MM/yyyy 'o''clock' HH"]
+    }
+
+    def "format into StringBuilder, char[] and ByteBuffer"() {
+        given:
+        def formatter = DateFormatter.of("yyyy-MM-dd'日' HH:mm:ss.SSS", TZ)
+        def time = 1356998400123L // 2013-01-01 00:00:00.123 UTC
+        def expected = "2012-12-31日 19:00:00.123"
+
+        and:
+        def sb = new StringBuilder("> ")
+        def chars = new char[formatter.length() + 2]
+        def bytes = ByteBuffer.allocate(64)
+        bytes.put(">".bytes)
+
+        when:
+        formatter.format(time, sb)
+        def end = formatter.format(time, chars, 2)
+        formatter.format(time, bytes)
+
+        then:
+        sb.toString() == "> " + expected
+        end == chars.length
+        new String(chars, 2, formatter.length()) == expected
+        new String(bytes.array(), 1, bytes.position() - 1, "UTF-8") == expected
+    }
+
+    def "parse is inverse of format"() {
+        given:
+        def formatter = DateFormatter.of("yyyy-MM-dd HH:mm:ss.SSS", TZ)
+
+        expect:
+        formatter.parse(formatter.format(time)) == time
+        formatter.parse("x" + formatter.format(time), 1) == time
+
+        where:
+        time << [0L, 1356998400123L, 1457852400000L, 1478415600000L, -1000000000000L]
+    }
+
+    def "parse missing fields"() {
+        expect:
+        DateFormatter.of("HH:mm", TimeZone.getTimeZone("UTC")).parse("01:30") == 5400000
+    }
+
+    def "parse deny invalid text"() {
+        when:
+        DateFormatter.of("yyyy-MM-dd", TZ).parse(text)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        text << ["2013-1-01", "2013/01/01", "2013-13-01", "2013-02-29", "20a3-01-01", "2013-01-011"]
+    }
+
+    def "deny unsupported pattern"() {
+        when:
+        DateFormatter.of(pattern)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        pattern << ["yy-MM-dd", "yyyy-M-d", "EEE", "'unterminated"]
+    }
+
+    def "follows default time zone"() {
+        given:
+        def defaultTZ = TimeZone.default
+        def formatter = DateFormatter.of("HH")
+
+        when:
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT+10"))
+        def first = formatter.format(0)
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT-3"))
+        def second = formatter.format(0)
+
+        then:
+        first == "10"
+        second == "21"
+
+        cleanup:
+        TimeZone.setDefault(defaultTZ)
+    }
+}
@@ -4,6 +4,8 @@ import mockit.Mock
 import mockit.MockUp
 import spock.lang.Specification
 
+import java.text.SimpleDateFormat
+
 /**
  * DateUtilTest.
  *
@@ -18,10 +20,12 @@ class DateUtilTest extends Specification {
     def setupSpec() {
         defaultTZ = TimeZone.default
         TimeZone.setDefault(TZ)
+        ZoneOffsetCache.invalidate()
     }
 
     def cleanupSpec() {
         TimeZone.setDefault(defaultTZ)
+        ZoneOffsetCache.invalidate()
     }
 
     def "can't init directly"() {
@@ -41,6 +45,23 @@ class DateUtilTest extends Specification {
         dateOf(2013, 1, 1) || "2013-01-01 00:00:00"
     }
 
+    def "toDateTimeString out of 0000-9999 same as SimpleDateFormat"() {
+        given:
+        def dateTime = new Date(time)
+
+        expect:
+        DateUtil.toDateTimeString(dateTime) == result
+        result == new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(dateTime)
+
+        where:
+        time               || result
+        253402264800000L   || "10000-01-01 00:00:00"
+        1000000000000000L  || "33658-09-27 11:46:40"
+        -62167392000000L   || "0001-01-01 10:00:00" // 西元前 1 年
+        -62198928000000L   || "0002-01-01 10:00:00" // 西元前 2 年
+        -12219292800001L   || "1582-10-15 09:59:59" // 儒略曆最後一刻
+    }
+
     def "test dateOf"() {
         expect:
         DateUtil.dateOf(time) == result
@@ -226,6 +247,27 @@ class DateUtilTest extends Specification {
         mock.tearDown()
     }
 
+    def "now uses injected clock"() {
+        given:
+        def clock = MillisClock.manual(946728000123) // Sat Jan 01 12:00:00.123 UTC 2000
+
+        when:
+        DateUtil.setClock(clock)
+
+        then:
+        DateUtil.nowLocal() == dateOf(2000, 1, 1, 12 + OFFSET, 0, 0, 123)
+        DateUtil.nowUTC() == dateOf(2000, 1, 1, 12, 0, 0, 123)
+
+        when:
+        clock.advance(1, java.util.concurrent.TimeUnit.DAYS)
+
+        then:
+        DateUtil.nowUTC() == dateOf(2000, 1, 2, 12, 0, 0, 123)
+
+        cleanup:
+        DateUtil.setClock(MillisClock.system())
+    }
+
     def "test timeZoneOffsetMillis"() {
         expect:
         DateUtil.timeZoneOffsetMillis() == OFFSET * 3600000
@@ -381,6 +423,84 @@ class DateUtilTest extends Specification {
         dateOf(2013, 1, 1, OFFSET, 0) || dateOf(2013, 1, 1, 0, 0)
     }
 
+    def "Millis can't init directly"() {
+        when:
+        new DateUtil.Millis()
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "test Millis.offset"() {
+        expect:
+        DateUtil.Millis.offset(time, TimeZone.getTimeZone(zone)) == offset
+
+        where:
+        time          | zone               || offset
+        0             | "UTC"              || 0
+        0             | "GMT+10"           || 36000000
+        1467331200000 | "America/New_York" || -14400000 // 2016-07-01, EDT
+        1451606400000 | "America/New_York" || -18000000 // 2016-01-01, EST
+    }
+
+    def "Millis.startOfWeek with firstDayOfWeek"() {
+        expect:
+        DateUtil.Millis.startOfWeek(dateOf(2013, 1, 1).time, TZ, firstDay) == dateOf(yyyy, mm, dd).time
+
+        where:
+        firstDay          || yyyy | mm | dd
+        Calendar.SUNDAY   || 2012 | 12 | 30
+        Calendar.MONDAY   || 2012 | 12 | 31
+        Calendar.TUESDAY  || 2013 | 1  | 1
+        Calendar.SATURDAY || 2012 | 12 | 29
+    }
+
+    def "Millis matches Calendar around DST transitions"() {
+        given:
+        def zone = TimeZone.getTimeZone(zoneId)
+        def calendar = { long t -> def c = Calendar.getInstance(zone, Locale.US); c.timeInMillis = t; c }
+        def truncate = { Calendar c -> [Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND, Calendar.MILLISECOND].each { c.set(it, 0) }; c }
+
+        expect:
+        (-48..48).every { h ->
+            long t = transition + h * 1800000L
+            def start = truncate(calendar(t))
+            def month = truncate(calendar(t)); month.set(Calendar.DAY_OF_MONTH, 1)
+            def days = calendar(t); days.add(Calendar.DAY_OF_MONTH, 3)
+            DateUtil.Millis.startOfDay(t, zone) == start.timeInMillis &&
+                DateUtil.Millis.startOfMonth(t, zone) == month.timeInMillis &&
+                DateUtil.Millis.incDay(t, 3, zone) == days.timeInMillis &&
+                [-1, 0, 1, 12].every { m ->
+                    def months = calendar(t); months.add(Calendar.MONTH, m)
+                    DateUtil.Millis.incMonth(t, m, zone) == months.timeInMillis
+                }
+        }
+
+        where:
+        zoneId              | transition
+        "America/New_York"  | 1457852400000 // 2016-03-13 02:00 EST
+        "America/New_York"  | 1478412000000 // 2016-11-06 02:00 EDT
+        "Europe/Berlin"     | 1477789200000 // 2016-10-30 03:00 CEST
+        "America/Sao_Paulo" | 1476586800000 // 2016-10-16 00:00 BRT
+    }
+
+    def "Millis.incMonth into a repeated hour matches Calendar"() {
+        given:
+        def zone = TimeZone.getTimeZone(zoneId)
+        def calendar = Calendar.getInstance(zone, Locale.US)
+        calendar.timeInMillis = t
+        calendar.add(Calendar.MONTH, month)
+
+        expect:
+        DateUtil.Millis.incMonth(t, month, zone) == calendar.timeInMillis
+
+        where:
+        zoneId             | t             | month
+        "America/New_York" | 1761975000000 | 12 // 2025-11-01 01:30 EDT -> 2026-11-01 01:30
+        "America/New_York" | 1762061400000 | 0  // 2025-11-02 01:30 EDT
+        "Europe/Berlin"    | 1445733000000 | 60 // 2015-10-25 02:30 CEST -> 2020-10-25 02:30
+    }
+
     def dateOf(yyyy, mm, dd, hh = 0, nn = 0, ss = 0, mmm = 0) {
         Calendar c = Calendar.getInstance(TZ)
         c.set(yyyy, mm - 1, dd, hh, nn, ss)
@@ -0,0 +1,72 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * ElasticThreadPoolTest.
+ */
+class ElasticThreadPoolTest extends Specification {
+    // 調整間隔設得很長，由測試直接呼叫 adjust()
+    def pool = ExecutorUtil.newElasticThreadPool("Elastic-%d", 1, 4, 1, 1000000, TimeUnit.MILLISECONDS)
+
+    def cleanup() {
+        pool.shutdownNow()
+    }
+
+    @Timeout(5)
+    def "grow under backlog and shrink when idle"() {
+        given:
+        def names = Collections.synchronizedSet(new HashSet<String>())
+
+        when:
+        20.times {
+            pool.execute {
+                names << Thread.currentThread().name
+                Thread.sleep(20)
+            }
+        }
+        Thread.sleep(10)
+
+        then:
+        pool.adjust() == ElasticThreadPool.Decision.GROW
+        pool.targetSize == 2
+        pool.lastDecision == ElasticThreadPool.Decision.GROW
+        // 樣本不足時先不評估
+        pool.adjust() == ElasticThreadPool.Decision.HOLD
+
+        when:
+        while (pool.metrics.completedCount < 20) {
+            Thread.sleep(10)
+        }
+        pool.adjust()
+        def decisions = (1..5).collect { pool.adjust() }
+
+        then:
+        decisions.contains(ElasticThreadPool.Decision.SHRINK)
+        pool.targetSize == 1
+        pool.getDecisionCount(ElasticThreadPool.Decision.GROW) == 1
+        names.every { it.startsWith("Elastic-") }
+    }
+
+    def "hold when idle at min size"() {
+        expect:
+        pool.adjust() == ElasticThreadPool.Decision.HOLD
+        pool.targetSize == pool.minSize
+    }
+
+    def "invalid sizes"() {
+        when:
+        ExecutorUtil.newElasticThreadPool("Elastic-%d", min, max)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        min | max
+        0   | 1
+        3   | 2
+    }
+}
@@ -0,0 +1,109 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+/**
+ * ExecutorMetricsTest.
+ */
+class ExecutorMetricsTest extends Specification {
+    @Timeout(5)
+    def "fixed pool records wait, run time and failures"() {
+        given:
+        def failures = Collections.synchronizedList([])
+        def metrics = new ExecutorMetrics().withListener(new ExecutorListener() {
+            @Override
+            void onTaskCompleted(long waitNanos, long runNanos, Throwable failure) {
+                if (failure != null) {
+                    failures << failure
+                }
+            }
+        })
+        def pool = ExecutorUtil.newFixedThreadPool("Metrics-%d", 2, metrics)
+        def release = new CountDownLatch(1)
+        def running = new CountDownLatch(2)
+
+        when:
+        2.times {
+            pool.execute {
+                running.countDown()
+                release.await()
+            }
+        }
+        3.times { pool.execute { Thread.sleep(1) } }
+        running.await()
+
+        then:
+        metrics.activeCount == 2
+        metrics.idleCount == 0
+        metrics.queueSize == 3
+
+        when:
+        release.countDown()
+        pool.submit({ throw new IllegalStateException("submit") } as Callable)
+        pool.execute { throw new IllegalArgumentException("execute") }
+        pool.shutdown()
+        pool.awaitTermination(5, TimeUnit.SECONDS)
+
+        then:
+        metrics.completedCount == 7
+        metrics.failedCount == 2
+        failures*.class as Set == [IllegalStateException, IllegalArgumentException] as Set
+        metrics.activeCount == 0
+        metrics.queueWait.count == 7
+        metrics.runTime.count == 7
+        metrics.runTime.percentile(1) >= TimeUnit.MILLISECONDS.toNanos(1)
+        metrics.utilization > 0
+
+        when:
+        pool.execute {}
+
+        then:
+        thrown(RejectedExecutionException)
+        metrics.rejectedCount == 1
+    }
+
+    @Timeout(5)
+    def "scheduled pool records lateness"() {
+        given:
+        def metrics = new ExecutorMetrics()
+        def pool = ExecutorUtil.newScheduledThreadPool("Metrics-%d", 1, metrics)
+
+        when:
+        pool.execute { Thread.sleep(50) }
+        pool.schedule({}, 10, TimeUnit.MILLISECONDS)
+        pool.shutdown()
+        pool.awaitTermination(5, TimeUnit.SECONDS)
+
+        then:
+        metrics.completedCount == 2
+        metrics.queueWait.percentile(1) >= TimeUnit.MILLISECONDS.toNanos(30)
+
+        when:
+        metrics.resetStatistics()
+
+        then:
+        metrics.completedCount == 0
+        metrics.queueWait.count == 0
+    }
+
+    def "metrics cannot be shared"() {
+        given:
+        def metrics = new ExecutorMetrics()
+        def pool = ExecutorUtil.newFixedThreadPool("Metrics-%d", 1, metrics)
+
+        when:
+        ExecutorUtil.newFixedThreadPool("Metrics-%d", 1, metrics)
+
+        then:
+        thrown(IllegalStateException)
+
+        cleanup:
+        pool.shutdown()
+    }
+}
@@ -5,6 +5,7 @@ import spock.lang.Timeout
 
 import java.util.concurrent.ExecutorService
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * ExecutorUtilTest.
@@ -106,6 +107,119 @@ class ExecutorUtilTest extends Specification {
         threadName.startsWith(poolFormat.replace("%d", ""))
     }
 
+    @Timeout(1)
+    def "newWorkStealingPool naming startsWith"() {
+        given:
+        def poolFormat = "TEST-%d"
+        def threadName = ""
+        def pool = ExecutorUtil.newWorkStealingPool(poolFormat, 2)
+
+        when:
+        pool.execute {
+            threadName = Thread.currentThread().name
+        }
+        waitForPoolTerminated(pool)
+
+        then:
+        threadName.startsWith(poolFormat.replace("%d", ""))
+    }
+
+    @Timeout(1)
+    def "newVirtualThreadExecutor naming startsWith"() {
+        given:
+        def poolFormat = "TEST-%d"
+        def threadName = ""
+        def pool = ExecutorUtil.newVirtualThreadExecutor(poolFormat)
+
+        when:
+        pool.execute {
+            threadName = Thread.currentThread().name
+        }
+        waitForPoolTerminated(pool)
+
+        then:
+        threadName.startsWith(poolFormat.replace("%d", ""))
+    }
+
+    @Timeout(5)
+    def "newVirtualThreadExecutor limits concurrency"() {
+        given:
+        def running = new AtomicInteger()
+        def maxRunning = new AtomicInteger()
+        def done = new AtomicInteger()
+        def pool = ExecutorUtil.newVirtualThreadExecutor("TEST-%d", 3)
+
+        when:
+        30.times {
+            pool.execute {
+                def current = running.incrementAndGet()
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current))
+                }
+                Thread.sleep(10)
+                running.decrementAndGet()
+                done.incrementAndGet()
+            }
+        }
+        waitForPoolTerminated(pool)
+
+        then:
+        done.get() == 30
+        maxRunning.get() <= 3
+    }
+
+    def "NamingThreadFactory naming"() {
+        expect:
+        new ExecutorUtil.NamingThreadFactory(format).newThread({}).name == name
+
+        where:
+        format       | name
+        "TEST"       | "TEST"
+        "TEST-%d"    | "TEST-1"
+        "%d-TEST"    | "1-TEST"
+        "TEST-%03d"  | "TEST-001"
+        "TEST-%%-%d" | "TEST-%-1"
+    }
+
+    @Timeout(5)
+    def "NamingThreadFactory builder"() {
+        given:
+        def warm = new ThreadLocal<String>()
+        def failure = null
+        def factory = ExecutorUtil.NamingThreadFactory.builder("TEST-%d")
+            .withDaemon(true)
+            .withPriority(Thread.MAX_PRIORITY)
+            .withStackSize(1 << 20)
+            .withUncaughtExceptionHandler({ t, e -> failure = e } as Thread.UncaughtExceptionHandler)
+            .withWarmup { warm.set("warm") }
+            .withCpuAffinity(0)
+            .build()
+        def seen = null
+
+        when:
+        def thread = factory.newThread {
+            seen = warm.get()
+            throw new IllegalStateException("boom")
+        }
+        thread.start()
+        thread.join()
+
+        then:
+        thread.name == "TEST-1"
+        thread.daemon
+        thread.priority == Thread.MAX_PRIORITY
+        seen == "warm"
+        failure instanceof IllegalStateException
+    }
+
+    def "NamingThreadFactory builder rejects invalid priority"() {
+        when:
+        ExecutorUtil.NamingThreadFactory.builder("TEST").withPriority(Thread.MAX_PRIORITY + 1)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
     def waitForPoolTerminated(ExecutorService pool) {
         pool.shutdown()
         while (!pool.awaitTermination(100, TimeUnit.NANOSECONDS)) {
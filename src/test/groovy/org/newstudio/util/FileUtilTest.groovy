@@ -2,6 +2,13 @@ package org.newstudio.util
 
 import spock.lang.Specification
 
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+import java.text.NumberFormat
+import java.util.concurrent.CancellationException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 /**
  * FileUtilTest.
  *
@@ -28,6 +35,25 @@ class FileUtilTest extends Specification {
         Long.MAX_VALUE    || "9007199254740992.00"
     }
 
+    def "sizeByteToKilobyte uses locale digits"() {
+        given:
+        def original = Locale.getDefault(Locale.Category.FORMAT)
+        Locale.setDefault(Locale.Category.FORMAT, Locale.forLanguageTag(tag))
+        def df = NumberFormat.getInstance()
+        df.minimumFractionDigits = 2
+        df.maximumFractionDigits = 2
+        df.groupingUsed = false
+
+        expect:
+        [0, 1, 1536, 123456789].every { FileUtil.sizeByteToKilobyte(it) == df.format(it / 1024.0d) }
+
+        cleanup:
+        Locale.setDefault(Locale.Category.FORMAT, original)
+
+        where:
+        tag << ["en-US", "de-DE", "ar-EG", "fa-IR", "th-TH-u-nu-thai"]
+    }
+
     def "sizeByteToKilobyte deny negative"() {
         when:
         FileUtil.sizeByteToKilobyte(-1)
@@ -36,6 +62,17 @@ class FileUtilTest extends Specification {
         thrown(RuntimeException)
     }
 
+    def "test formatSize"() {
+        expect:
+        FileUtil.formatSize(size) == expected
+
+        where:
+        size       || expected
+        0          || "0 B"
+        1536       || "1.50 KB"
+        1073741824 || "1.00 GB"
+    }
+
     def "test copy <File>"() {
         given:
         def src = File.createTempFile("FileUtilTest", ".tmp")
@@ -113,4 +150,185 @@ class FileUtilTest extends Specification {
         then:
         result == false
     }
+
+    def "copyFile with every strategy"() {
+        given:
+        def data = new byte[size]
+        new Random(size).nextBytes(data)
+        def src = Files.createTempFile("FileUtilTest", ".tmp")
+        def dest = Files.createTempFile("FileUtilTest", ".tmp")
+
+        and:
+        Files.write(src, data)
+        Files.write(dest, new byte[size + 100])
+        Files.setLastModifiedTime(src, FileTime.fromMillis(1356998400000L))
+
+        when:
+        def result = FileUtil.copyFile(src, dest, strategy)
+
+        then:
+        result.bytes == size
+        result.strategy != CopyStrategy.AUTO
+        Files.readAllBytes(dest) == data
+        Files.getLastModifiedTime(dest).toMillis() == 1356998400000L
+
+        cleanup:
+        Files.delete(src)
+        Files.delete(dest)
+
+        where:
+        [strategy, size] << [CopyStrategy.values(), [0, 10, (3 << 20) + 17]].combinations()
+    }
+
+    def "copyFile AUTO selects by size"() {
+        expect:
+        CopyStrategy.AUTO.resolve(10) == CopyStrategy.DIRECT_BUFFER
+        CopyStrategy.AUTO.resolve(CopyStrategy.SMALL_FILE) == CopyStrategy.TRANSFER
+        CopyStrategy.MAPPED.resolve(10) == CopyStrategy.MAPPED
+    }
+
+    def "DIRECT_BUFFER pools full buffers and sizes extra buffers to the file"() {
+        given:
+        def held = (1..Runtime.runtime.availableProcessors()).collect { CopyStrategy.acquireBuffer(10) }
+
+        when:
+        def extra = CopyStrategy.acquireBuffer(10)
+        held.each { CopyStrategy.releaseBuffer(it) }
+        CopyStrategy.releaseBuffer(extra)
+        def reused = CopyStrategy.acquireBuffer(10)
+        CopyStrategy.releaseBuffer(reused)
+
+        then:
+        held.every { it.direct && it.capacity() == CopyStrategy.BUFFER_SIZE }
+        extra.capacity() == 10
+        reused.is(held[0])
+    }
+
+    def "copyFile deny same file"() {
+        given:
+        def src = Files.createTempFile("FileUtilTest", ".tmp")
+
+        when:
+        FileUtil.copyFile(src, src)
+
+        then:
+        thrown(IOException)
+
+        cleanup:
+        Files.delete(src)
+    }
+
+    def "copyTree copies, splits and skips unchanged"() {
+        given:
+        def src = Files.createTempDirectory("FileUtilTest")
+        def dest = src.resolveSibling(src.fileName.toString() + "-copy")
+        def big = new byte[(3 << 20) + 5]
+        new Random(0).nextBytes(big)
+
+        and:
+        Files.createDirectories(src.resolve("a/b"))
+        Files.write(src.resolve("a/big.bin"), big)
+        Files.write(src.resolve("a/b/small.txt"), "This is a test.".bytes)
+        def options = new TreeCopyOptions().withThreads(2).withRanges(1 << 20, 1 << 20)
+
+        when:
+        def first = FileUtil.copyTree(src, dest, options)
+        def second = FileUtil.copyTree(src, dest, options)
+
+        then:
+        first.success
+        first.copiedFiles == 2
+        first.bytes == big.length + 15
+        Files.readAllBytes(dest.resolve("a/big.bin")) == big
+        Files.getLastModifiedTime(dest.resolve("a/big.bin")) == Files.getLastModifiedTime(src.resolve("a/big.bin"))
+        new String(Files.readAllBytes(dest.resolve("a/b/small.txt"))) == "This is a test."
+
+        and:
+        second.success
+        second.copiedFiles == 0
+        second.skippedFiles == 2
+
+        cleanup:
+        src.toFile().deleteDir()
+        dest.toFile().deleteDir()
+    }
+
+    def "copyTree reports failures"() {
+        given:
+        def src = Files.createTempDirectory("FileUtilTest")
+        def missing = src.resolve("missing")
+
+        when:
+        def result = FileUtil.copyTree(missing, src.resolve("copy"))
+
+        then:
+        !result.success
+        result.failures.keySet() == [missing] as Set
+
+        cleanup:
+        src.toFile().deleteDir()
+    }
+
+    def "copyAsync copies and reports progress"() {
+        given:
+        def executor = Executors.newFixedThreadPool(2)
+        def data = new byte[(1 << 20) + 3]
+        new Random(0).nextBytes(data)
+        def src = Files.createTempFile("FileUtilTest", ".tmp")
+        def dest = Files.createTempFile("FileUtilTest", ".tmp")
+        Files.write(src, data)
+
+        and:
+        def progress = []
+        def completed = []
+        def listener = new CopyListener(0, TimeUnit.MILLISECONDS) {
+            @Override
+            void onProgress(long done, long total, double bytesPerSecond) {
+                progress << done
+            }
+
+            @Override
+            void onComplete(CopyResult result, Throwable failure) {
+                completed << result
+            }
+        }
+
+        when:
+        def result = FileUtil.copyAsync(src, dest, executor, listener).get(10, TimeUnit.SECONDS)
+
+        then:
+        result.bytes == data.length
+        Files.readAllBytes(dest) == data
+        progress.size() > 1
+        progress.last() == data.length
+        completed == [result]
+
+        cleanup:
+        executor.shutdown()
+        Files.delete(src)
+        Files.delete(dest)
+    }
+
+    def "copyAsync can be cancelled"() {
+        given:
+        def executor = Executors.newSingleThreadExecutor()
+        def src = Files.createTempFile("FileUtilTest", ".tmp")
+        def dest = Files.createTempFile("FileUtilTest", ".tmp")
+        Files.write(src, new byte[8 << 20])
+
+        when:
+        def future = FileUtil.copyAsync(src, dest, executor)
+        def cancelled = future.cancel(true)
+        future.get()
+
+        then:
+        thrown(CancellationException)
+        cancelled == future.cancelled
+        future.done
+
+        cleanup:
+        executor.shutdown()
+        Files.delete(src)
+        Files.delete(dest)
+    }
 }
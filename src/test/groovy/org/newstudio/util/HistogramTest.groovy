@@ -0,0 +1,65 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+/**
+ * HistogramTest.
+ */
+class HistogramTest extends Specification {
+    def "bucket bounds"() {
+        expect:
+        Histogram.bucketOf(value) == bucket
+        Histogram.lowerBound(bucket) <= value
+        Histogram.upperBound(bucket) >= value
+
+        where:
+        value          | bucket
+        0              | 0
+        1              | 1
+        2              | 2
+        3              | 2
+        4              | 3
+        1023           | 10
+        1024           | 11
+        Long.MAX_VALUE | 63
+    }
+
+    def "record and summarize"() {
+        given:
+        def histogram = new Histogram()
+
+        when:
+        (1..100).each { histogram.record(it) }
+        histogram.record(-5)
+
+        then:
+        histogram.count == 101
+        histogram.sum == 5050
+        histogram.snapshot()[0] == 1
+        histogram.snapshot()[7] == 37
+        histogram.percentile(0.5) == 63
+        histogram.percentile(1) == 127
+
+        when:
+        histogram.reset()
+
+        then:
+        histogram.count == 0
+        histogram.mean == 0
+        histogram.percentile(0.99) == 0
+    }
+
+    def "record from many threads"() {
+        given:
+        def histogram = new Histogram()
+
+        when:
+        (1..8).collect {
+            Thread.start { 10000.times { histogram.record(it) } }
+        }*.join()
+
+        then:
+        histogram.count == 80000
+        histogram.sum == 8 * (0..9999).sum()
+    }
+}
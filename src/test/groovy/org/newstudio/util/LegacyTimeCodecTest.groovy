@@ -0,0 +1,96 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.DoubleBuffer
+import java.nio.LongBuffer
+
+/**
+ * LegacyTimeCodecTest.
+ *
+ * @author Scribe Huang
+ */
+class LegacyTimeCodecTest extends Specification {
+    def final static OFFSET = 10 * 3600000
+    def final static DELPHI = [0, 41275.0, 41275.5, 42000.123456789] as double[]
+
+    def "can't init directly"() {
+        when:
+        new LegacyTimeCodec()
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "delphiToMillis same as DateUtil"() {
+        given:
+        def src = DoubleBuffer.wrap(DELPHI)
+        def dst = LongBuffer.allocate(DELPHI.length)
+
+        when:
+        def count = LegacyTimeCodec.delphiToMillis(src, dst, OFFSET)
+
+        then:
+        count == DELPHI.length
+        !src.hasRemaining()
+        (0..<DELPHI.length).every { dst.get(it) == DateUtil.Millis.fromDelphiTime(DELPHI[it], OFFSET) }
+        dst.get(1) == 1356998400000L - OFFSET // 2013-01-01
+    }
+
+    def "little-endian bytes round trip"() {
+        given:
+        def bytes = ByteBuffer.allocateDirect(DELPHI.length * 8 + 3)
+        DELPHI.each { bytes.putLong(Long.reverseBytes(Double.doubleToLongBits(it))) }
+        bytes.put([1, 2, 3] as byte[])
+        bytes.flip()
+        def millis = LongBuffer.allocate(DELPHI.length)
+
+        when: "partial trailing record is left in the buffer"
+        LegacyTimeCodec.delphiToMillis(bytes, millis, OFFSET)
+
+        then:
+        bytes.remaining() == 3
+        bytes.order() == ByteOrder.BIG_ENDIAN
+
+        when:
+        millis.flip()
+        def back = ByteBuffer.allocate(DELPHI.length * 8)
+        LegacyTimeCodec.millisToDelphi(millis, back, OFFSET)
+        back.flip().order(ByteOrder.LITTLE_ENDIAN)
+
+        then:
+        (0..<DELPHI.length).every { Math.abs(back.getDouble() - DELPHI[it]) < 1e-8 }
+    }
+
+    def "converts min of remaining"() {
+        given:
+        def src = LongBuffer.wrap([0L, 116444736000000000L, 130000000000000000L] as long[])
+        def dst = LongBuffer.allocate(2)
+
+        when:
+        def count = LegacyTimeCodec.fileTimeToMillis(src, dst)
+
+        then:
+        count == 2
+        src.remaining() == 1
+        dst.get(0) == DateUtil.fileTimeToJavaTime(0).time
+        dst.get(1) == 0
+    }
+
+    def "file time round trip"() {
+        given:
+        def millis = LongBuffer.wrap([0L, 1356998400000L, -1000L] as long[])
+        def fileTimes = ByteBuffer.allocate(24)
+        def back = LongBuffer.allocate(3)
+
+        when:
+        LegacyTimeCodec.millisToFileTime(millis, fileTimes)
+        fileTimes.flip()
+        LegacyTimeCodec.fileTimeToMillis(fileTimes, back)
+
+        then:
+        back.array() as List == [0L, 1356998400000L, -1000L]
+    }
+}
@@ -0,0 +1,73 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * MillisClockTest.
+ *
+ * @author Scribe Huang
+ */
+class MillisClockTest extends Specification {
+    def "system clock"() {
+        given:
+        def before = System.currentTimeMillis()
+        def now = MillisClock.system().millis()
+
+        expect:
+        now >= before
+        now <= System.currentTimeMillis()
+    }
+
+    def "fixed clock"() {
+        expect:
+        MillisClock.fixed(946728000000).millis() == 946728000000
+    }
+
+    def "manual clock fast-forward"() {
+        given:
+        def clock = MillisClock.manual(0)
+
+        when:
+        clock.advance(2, TimeUnit.SECONDS)
+        clock.advance(500, TimeUnit.MILLISECONDS)
+
+        then:
+        clock.millis() == 2500
+
+        when:
+        clock.set(100)
+
+        then:
+        clock.millis() == 100
+    }
+
+    @Timeout(5)
+    def "coarse clock ticks"() {
+        given:
+        def clock = MillisClock.coarse(10)
+        def start = clock.millis()
+
+        when:
+        while (clock.millis() == start) {
+            Thread.sleep(5)
+        }
+
+        then:
+        clock.millis() > start
+        Math.abs(clock.millis() - System.currentTimeMillis()) < 1000
+
+        cleanup:
+        clock.stop()
+    }
+
+    def "coarse clock deny non-positive tick"() {
+        when:
+        MillisClock.coarse(0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
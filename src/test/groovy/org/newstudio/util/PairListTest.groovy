@@ -0,0 +1,130 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+/**
+ * PairListTest.
+ */
+class PairListTest extends Specification {
+    def "append and indexed access"() {
+        given:
+        def list = new IntLongPairList(0)
+
+        when:
+        100.times { list.add(it, it * 10L) }
+        list.add(IntLongPair.of(-1, -10L))
+        list.set(0, 7, 70L)
+
+        then:
+        list.size() == 101
+        list.get_1(0) == 7
+        list.get_2(50) == 500L
+        list.get(100) == IntLongPair.of(-1, -10L)
+
+        when:
+        list.get_1(101)
+
+        then:
+        thrown(IndexOutOfBoundsException)
+    }
+
+    def "sort and binary search by either component"() {
+        given:
+        def list = new IntLongPairList()
+        def random = new Random(1)
+        def expected = []
+        1000.times {
+            def a = random.nextInt(100)
+            def b = (long) random.nextInt(100)
+            list.add(a, b)
+            expected << Pair.of(a, b)
+        }
+
+        when:
+        list.sortBy1()
+
+        then:
+        list.toPairs() == expected.sort(false) { x, y -> x._1 <=> y._1 ?: x._2 <=> y._2 }
+        list.get_1(list.binarySearch1(50)) == 50
+        list.binarySearch1(50) == 0 || list.get_1(list.binarySearch1(50) - 1) < 50
+        list.binarySearch1(1000) == -1001
+
+        when:
+        list.sortBy2()
+
+        then:
+        (1..<list.size()).every { list.get_2(it - 1) <= list.get_2(it) }
+        list.get_2(list.binarySearch2(42L)) == 42L
+        list.binarySearch2(-5L) == -1
+    }
+
+    def "double ordering follows Double.compare"() {
+        given:
+        def list = new LongDoublePairList()
+        list.add(1L, Double.NaN)
+        list.add(2L, 0.0d)
+        list.add(3L, -0.0d)
+        list.add(4L, -1.0d)
+
+        when:
+        list.sortBy2()
+
+        then:
+        list.toArray1() == [4L, 3L, 2L, 1L] as long[]
+    }
+
+    def "cursor iterates without allocation"() {
+        given:
+        def list = new IntIntPairList()
+        10.times { list.add(it, it * it) }
+        def sum = 0
+
+        when:
+        def cursor = list.cursor()
+        while (cursor.next()) {
+            sum += cursor.get_1() + cursor.get_2()
+        }
+
+        then:
+        sum == 45 + 285
+        !cursor.next()
+
+        when:
+        cursor.reset()
+
+        then:
+        cursor.next()
+        cursor.index() == 0
+    }
+
+    def "generic list converts to and from Pair"() {
+        given:
+        def pairs = [Pair.of("b", 2), Pair.of("c", 3), Pair.of("a", 1)]
+
+        when:
+        def list = PairList.from(pairs)
+        list.sortBy1(null)
+
+        then:
+        list.toPairs() == [Pair.of("a", 1), Pair.of("b", 2), Pair.of("c", 3)]
+        list.binarySearch1("b", null) == 1
+        list.binarySearch1("bb", null) == -3
+        list.toString() == "[(a, 1), (b, 2), (c, 3)]"
+
+        when:
+        list.sortBy2(Collections.reverseOrder())
+
+        then:
+        list.get(0) == Pair.of("c", 3)
+        list.binarySearch2(1, Collections.reverseOrder()) == 2
+    }
+
+    def "primitive list from Pair"() {
+        when:
+        def list = LongLongPairList.from([Pair.of(1L, 2L), Pair.of(3L, 4L)])
+
+        then:
+        list.toPairs() == [Pair.of(1L, 2L), Pair.of(3L, 4L)]
+        list.toArray2() == [2L, 4L] as long[]
+    }
+}
@@ -50,4 +50,48 @@ class PairTest extends Specification {
         expect:
         p1.hashCode() != p2.hashCode()
     }
+
+    def "Cached hash pair equals plain pair"() {
+        given:
+        def plain = Pair.of("Hello", 1)
+        def cached = Pair.ofCachedHash("Hello", 1)
+
+        expect:
+        cached == plain
+        plain == cached
+        cached.hashCode() == plain.hashCode()
+        cached != Pair.ofCachedHash("Hello", 2)
+        cached.swap() == Pair.of(1, "Hello")
+        [(plain): "value"][cached] == "value"
+    }
+
+    def "intern returns canonical instance"() {
+        given:
+        def p1 = Pair.intern(Pair.of("intern", 1))
+        def p2 = Pair.intern(Pair.of("intern", 1))
+        def p3 = Pair.intern(Pair.ofCachedHash("intern", 1))
+
+        expect:
+        p1.is(p2)
+        p1.is(p3)
+        p1 == Pair.of("intern", 1)
+        !p1.is(Pair.intern(Pair.of("intern", 2)))
+    }
+
+    def "intern is thread-safe"() {
+        given:
+        def results = Collections.synchronizedList([])
+        def threads = (1..8).collect {
+            Thread.start {
+                1000.times { i -> results << Pair.intern(Pair.of("concurrent", i % 10)) }
+            }
+        }
+
+        when:
+        threads*.join()
+
+        then:
+        results.size() == 8000
+        results.groupBy { it._2 }.every { k, v -> v.every { it.is(v[0]) } }
+    }
 }
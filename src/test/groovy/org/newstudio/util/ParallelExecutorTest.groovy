@@ -3,8 +3,12 @@ package org.newstudio.util
 import com.google.common.base.Stopwatch
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicIntegerArray
 
 /**
  * ParallelExecutorTest.
@@ -29,6 +33,286 @@ class ParallelExecutorTest extends Specification {
         counter.intValue() == count
     }
 
+    def "test execute with work stealing"() {
+        given:
+        def count = 10000
+        def counter = new AtomicInteger()
+        def names = Collections.synchronizedSet(new HashSet<String>())
+        def stealing = new ParallelExecutor(ParallelExecutor.Mode.WORK_STEALING, 2, "Stealing-%d")
+
+        when:
+        count.times {
+            stealing.execute {
+                counter.incrementAndGet()
+                names << Thread.currentThread().name
+            }
+        }
+        stealing.waitParallel()
+
+        then:
+        stealing.mode == ParallelExecutor.Mode.WORK_STEALING
+        counter.intValue() == count
+        names.every { it.startsWith("Stealing-") }
+    }
+
+    def "await keeps pool for next batch"() {
+        given:
+        def reusable = new ParallelExecutor(2, "Reusable-%d")
+        def names = Collections.synchronizedSet(new HashSet<String>())
+        def counter = new AtomicInteger()
+
+        when:
+        3.times {
+            100.times {
+                reusable.execute {
+                    counter.incrementAndGet()
+                    names << Thread.currentThread().name
+                }
+            }
+            reusable.await()
+        }
+
+        then:
+        counter.intValue() == 300
+        reusable.pendingCount == 0
+        names == ["Reusable-1", "Reusable-2"] as Set
+
+        cleanup:
+        reusable.shutdown()
+    }
+
+    def "await times out"() {
+        given:
+        def latch = new CountDownLatch(1)
+        executor.execute {
+            latch.await()
+        }
+
+        expect:
+        !executor.await(50, TimeUnit.MILLISECONDS)
+        executor.pendingCount == 1
+
+        when:
+        latch.countDown()
+
+        then:
+        executor.await(1, TimeUnit.SECONDS)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "await propagates task exceptions"() {
+        given:
+        3.times { i ->
+            executor.execute {
+                throw new IllegalStateException("task " + i)
+            }
+        }
+        executor.execute {}
+
+        when:
+        executor.await()
+
+        then:
+        def ex = thrown(ExecutionException)
+        ex.cause instanceof IllegalStateException
+        ex.cause.suppressed.length == 2
+
+        when: "失敗只回報一次，下一批不受影響"
+        executor.execute {}
+        executor.await()
+
+        then:
+        notThrown(ExecutionException)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "waitParallel reports task exceptions once"() {
+        given:
+        3.times {
+            executor.execute {
+                throw new IllegalStateException("logged")
+            }
+        }
+
+        when: "例外記錄到 log，不丟出"
+        executor.waitParallel()
+
+        then:
+        notThrown(Exception)
+
+        when: "已記錄的例外不會再由 await 回報"
+        executor.await()
+
+        then:
+        notThrown(ExecutionException)
+    }
+
+    def "execute after shutdown is rejected"() {
+        given:
+        executor.shutdown()
+
+        when:
+        executor.execute {}
+
+        then:
+        thrown(RejectedExecutionException)
+        executor.pendingCount == 0
+    }
+
+    def "bounded queue applies backpressure"() {
+        given:
+        def bounded = new ParallelExecutor(ParallelExecutor.Mode.FIXED, 1, "Bounded-%d", 2, backpressure)
+        def gate = new CountDownLatch(1)
+        def started = new CountDownLatch(1)
+        def ran = new AtomicInteger()
+        def caller = Thread.currentThread()
+        def inCaller = new AtomicInteger()
+        def failed = 0
+
+        when: "1 個執行中加上 2 個待執行後佇列已滿"
+        5.times {
+            try {
+                bounded.execute {
+                    if (Thread.currentThread() == caller) {
+                        inCaller.incrementAndGet()
+                    } else {
+                        started.countDown()
+                        gate.await()
+                    }
+                    ran.incrementAndGet()
+                }
+            } catch (RejectedExecutionException ignored) {
+                failed++
+            }
+        }
+        started.await()
+        def depth = bounded.queueDepth
+        gate.countDown()
+        bounded.await()
+
+        then:
+        depth == 2
+        bounded.rejectedCount == 2
+        ran.get() == executed
+        inCaller.get() == callerRuns
+        failed == failures
+
+        cleanup:
+        bounded.shutdown()
+
+        where:
+        backpressure                                 || executed | callerRuns | failures
+        ParallelExecutor.Backpressure.CALLER_RUNS    || 5        | 2          | 0
+        ParallelExecutor.Backpressure.DROP           || 3        | 0          | 0
+        ParallelExecutor.Backpressure.FAIL_FAST      || 3        | 0          | 2
+    }
+
+    def "bounded queue blocks caller"() {
+        given:
+        def bounded = new ParallelExecutor(ParallelExecutor.Mode.WORK_STEALING, 1, "Bounded-%d", 0,
+                ParallelExecutor.Backpressure.BLOCK)
+        def ran = new AtomicInteger()
+
+        when:
+        10.times {
+            bounded.execute {
+                Thread.sleep(5)
+                ran.incrementAndGet()
+            }
+            assert bounded.pendingCount <= 1
+        }
+        bounded.await()
+
+        then:
+        ran.get() == 10
+        bounded.rejectedCount > 0
+
+        cleanup:
+        bounded.shutdown()
+    }
+
+    def "parallelFor visits every index once"() {
+        given:
+        def visited = new AtomicIntegerArray(1000)
+
+        when:
+        executor.parallelFor(-5, 995, { visited.incrementAndGet(it + 5) } as ParallelExecutor.IntConsumer)
+
+        then:
+        (0..<1000).every { visited.get(it) == 1 }
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "map preserves order"() {
+        given:
+        def input = (0..<1000).toList()
+
+        when:
+        def result = executor.map(input, { it * 2 } as ParallelExecutor.Function)
+
+        then:
+        result == input.collect { it * 2 }
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "mapReduce combines in order"() {
+        given:
+        def input = (0..<100).toList()
+
+        when:
+        def result = executor.mapReduce(input, { it + "," } as ParallelExecutor.Function, "",
+                { a, b -> a + b } as ParallelExecutor.BinaryOperator)
+
+        then:
+        result == input.join(",") + ","
+        executor.mapReduce([], { it } as ParallelExecutor.Function, 0,
+                { a, b -> a + b } as ParallelExecutor.BinaryOperator) == 0
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "parallelFor inside the pool does not deadlock"() {
+        given:
+        def single = new ParallelExecutor(1, "Nested-%d")
+        def sum = new AtomicInteger()
+
+        when:
+        single.execute {
+            single.parallelFor(0, 100, { sum.addAndGet(it) } as ParallelExecutor.IntConsumer)
+        }
+        single.await()
+
+        then:
+        sum.get() == 4950
+
+        cleanup:
+        single.shutdown()
+    }
+
+    def "parallelFor propagates exceptions"() {
+        when:
+        executor.parallelFor(0, 100, {
+            if (it == 42) {
+                throw new IllegalStateException()
+            }
+        } as ParallelExecutor.IntConsumer)
+
+        then:
+        thrown(IllegalStateException)
+
+        cleanup:
+        executor.shutdown()
+    }
+
     def "waitParallel blocks execution"() {
         given: "產生無限迴圈，讓執行緒永久等待"
         def LOCKUP_DETECT_TIMEOUT = 1000
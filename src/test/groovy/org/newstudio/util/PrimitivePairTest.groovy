@@ -0,0 +1,68 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+/**
+ * PrimitivePairTest.
+ */
+class PrimitivePairTest extends Specification {
+    def "of, get and toString"() {
+        expect:
+        pair._1 == first
+        pair._2 == second
+        pair.toString() == "(" + first + ", " + second + ")"
+        pair.toPair() == Pair.of(first, second)
+
+        where:
+        pair                        | first         | second
+        IntIntPair.of(1, 2)         | 1             | 2
+        IntLongPair.of(1, 2L)       | 1             | 2L
+        LongIntPair.of(1L, 2)       | 1L            | 2
+        LongLongPair.of(-1L, 2L)    | -1L           | 2L
+        LongDoublePair.of(1L, 2.5d) | 1L            | 2.5d
+        DoubleLongPair.of(2.5d, 1L) | 2.5d          | 1L
+    }
+
+    def "swap"() {
+        expect:
+        IntIntPair.of(1024, 768).swap() == IntIntPair.of(768, 1024)
+        IntLongPair.of(1, 2L).swap() == LongIntPair.of(2L, 1)
+        LongIntPair.of(2L, 1).swap() == IntLongPair.of(1, 2L)
+        LongLongPair.of(1L, 2L).swap() == LongLongPair.of(2L, 1L)
+        LongDoublePair.of(1L, 0.5d).swap() == DoubleLongPair.of(0.5d, 1L)
+        DoubleLongPair.of(0.5d, 1L).swap() == LongDoublePair.of(1L, 0.5d)
+    }
+
+    def "test equals"() {
+        expect:
+        IntIntPair.of(0, 0) == IntIntPair.of(0, 0)
+        IntIntPair.of(0, 1) != IntIntPair.of(1, 0)
+        IntLongPair.of(1, 2L) != LongIntPair.of(1L, 2)
+        LongDoublePair.of(1L, Double.NaN) == LongDoublePair.of(1L, Double.NaN)
+        LongDoublePair.of(1L, 0.0d) != LongDoublePair.of(1L, -0.0d)
+    }
+
+    def "test hashCode"() {
+        expect:
+        IntIntPair.of(1, 0).hashCode() != IntIntPair.of(0, 1).hashCode()
+        IntIntPair.of(0, 31).hashCode() != IntIntPair.of(1, 0).hashCode()
+        LongLongPair.of(5L, 6L).hashCode() == LongLongPair.of(5L, 6L).hashCode()
+        LongDoublePair.of(1L, Double.NaN).hashCode() == LongDoublePair.of(1L, Double.NaN).hashCode()
+    }
+
+    def "hash spreads a dense grid"() {
+        given:
+        def buckets = new HashSet<Integer>()
+
+        when:
+        for (int i = 0; i < 256; i++) {
+            for (int j = 0; j < 256; j++) {
+                buckets << (IntIntPair.of(i, j).hashCode() & 0xFFFF)
+            }
+        }
+
+        then:
+        // 隨機分佈時約 63% 的格子會被使用
+        buckets.size() > 0.6 * 0x10000
+    }
+}
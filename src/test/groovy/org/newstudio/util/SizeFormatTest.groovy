@@ -0,0 +1,79 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+import java.text.DecimalFormat
+import java.text.DecimalFormatSymbols
+
+import static org.newstudio.util.SizeFormat.Base.*
+
+/**
+ * SizeFormatTest.
+ *
+ * @author Scribe Huang
+ */
+class SizeFormatTest extends Specification {
+    def "format with automatic unit"() {
+        expect:
+        SizeFormat.of(base, decimals).format(size) == expected
+
+        where:
+        base  | decimals | size           || expected
+        IEC   | 2        | 0              || "0 B"
+        IEC   | 2        | 1023           || "1023 B"
+        IEC   | 2        | 1536           || "1.50 KiB"
+        IEC   | 2        | 1048575        || "1.00 MiB"
+        JEDEC | 2        | 1073741824     || "1.00 GB"
+        SI    | 1        | 999999         || "1.0 MB"
+        SI    | 0        | 1500           || "2 kB"
+        SI    | 0        | 2500           || "2 kB"
+        SI    | 3        | 1234567890123  || "1.235 TB"
+        IEC   | 2        | Long.MAX_VALUE || "8192.00 PiB"
+    }
+
+    def "fixed unit matches DecimalFormat"() {
+        given:
+        def format = SizeFormat.fixed(JEDEC, 1, 2)
+        def df = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.US))
+        def random = new Random(0)
+
+        expect:
+        (0..10000).collect { it % 2 ? random.nextInt() & Integer.MAX_VALUE : it }.every {
+            format.format(it) == df.format(it / 1024.0d)
+        }
+    }
+
+    def "format into StringBuilder and char[]"() {
+        given:
+        def format = SizeFormat.of(IEC, 2).withDecimalSeparator(',' as char)
+        def chars = new char[format.maxLength() + 1]
+
+        when:
+        def end = format.format(1536, chars, 1)
+
+        then:
+        format.format(1536, new StringBuilder("> ")).toString() == "> 1,50 KiB"
+        new String(chars, 1, end - 1) == "1,50 KiB"
+    }
+
+    def "format with locale digits"() {
+        expect:
+        SizeFormat.of(IEC, 2).withZeroDigit('\u0660' as char).withDecimalSeparator('\u066b' as char).format(1536) ==
+                "\u0661\u066b\u0665\u0660 KiB"
+    }
+
+    def "deny invalid arguments"() {
+        when:
+        closure()
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        closure << [
+                { SizeFormat.of(SI, 4) },
+                { SizeFormat.fixed(SI, 6, 0) },
+                { SizeFormat.of(SI, 0).format(-1) },
+        ]
+    }
+}
@@ -0,0 +1,111 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * TimingWheelSchedulerTest.
+ */
+class TimingWheelSchedulerTest extends Specification {
+    def scheduler = ExecutorUtil.newTimingWheelScheduler("Wheel-%d", 1, TimeUnit.MILLISECONDS, 16, 2)
+
+    def cleanup() {
+        scheduler.shutdownNow()
+    }
+
+    @Timeout(5)
+    def "fires after delay"() {
+        given:
+        def start = System.nanoTime()
+
+        when:
+        def future = scheduler.schedule({ System.nanoTime() - start } as Callable<Long>, 50, TimeUnit.MILLISECONDS)
+
+        then:
+        future.get() >= TimeUnit.MILLISECONDS.toNanos(50)
+    }
+
+    @Timeout(5)
+    def "fires delays longer than one wheel"() {
+        when:
+        def future = scheduler.schedule({ Thread.currentThread().name } as Callable<String>, 100, TimeUnit.MILLISECONDS)
+
+        then:
+        future.getDelay(TimeUnit.MILLISECONDS) > 0
+        future.get().startsWith("Wheel-")
+    }
+
+    @Timeout(5)
+    def "many timers with cancellation"() {
+        given:
+        def count = 10000
+        def fired = new AtomicInteger()
+        def latch = new CountDownLatch(count / 2 as int)
+
+        when:
+        def futures = (0..<count).collect { i ->
+            scheduler.schedule({
+                fired.incrementAndGet()
+                latch.countDown()
+            }, 20 + i % 50, TimeUnit.MILLISECONDS)
+        }
+        futures.eachWithIndex { f, i ->
+            if (i % 2 == 0) {
+                assert f.cancel(false)
+            }
+        }
+        latch.await()
+        Thread.sleep(100)
+
+        then:
+        fired.get() == count / 2
+        futures.findAll { it.cancelled }.size() == count / 2
+    }
+
+    @Timeout(5)
+    def "periodic until cancelled"() {
+        given:
+        def runs = new AtomicInteger()
+        def latch = new CountDownLatch(5)
+
+        when:
+        def future = scheduler.scheduleAtFixedRate({
+            runs.incrementAndGet()
+            latch.countDown()
+        }, 0, 5, TimeUnit.MILLISECONDS)
+        latch.await()
+        future.cancel(false)
+        Thread.sleep(20)
+        def stopped = runs.get()
+        Thread.sleep(50)
+
+        then:
+        future.periodic
+        runs.get() == stopped
+    }
+
+    @Timeout(5)
+    def "shutdown cancels pending timers"() {
+        given:
+        def future = scheduler.schedule({}, 1, TimeUnit.HOURS)
+
+        when:
+        scheduler.shutdown()
+
+        then:
+        scheduler.awaitTermination(1, TimeUnit.SECONDS)
+        future.cancelled
+
+        when:
+        scheduler.schedule({}, 1, TimeUnit.MILLISECONDS)
+
+        then:
+        thrown(RejectedExecutionException)
+    }
+}
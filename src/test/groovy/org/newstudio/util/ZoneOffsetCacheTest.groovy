@@ -0,0 +1,83 @@
+package org.newstudio.util
+
+import spock.lang.Specification
+
+/**
+ * ZoneOffsetCacheTest.
+ *
+ * @author Scribe Huang
+ */
+class ZoneOffsetCacheTest extends Specification {
+    def defaultTZ
+
+    def setup() {
+        defaultTZ = TimeZone.default
+        ZoneOffsetCache.invalidate()
+        ZoneOffsetCache.resetStatistics()
+    }
+
+    def cleanup() {
+        TimeZone.setDefault(defaultTZ)
+        ZoneOffsetCache.invalidate()
+    }
+
+    def "can't init directly"() {
+        when:
+        new ZoneOffsetCache()
+
+        then:
+        thrown(RuntimeException)
+    }
+
+    def "same as Calendar"() {
+        given:
+        TimeZone.setDefault(TimeZone.getTimeZone(zone))
+        def c = Calendar.getInstance()
+
+        expect:
+        ZoneOffsetCache.currentOffsetMillis() == c.get(Calendar.ZONE_OFFSET) + c.get(Calendar.DST_OFFSET)
+
+        where:
+        zone << ["UTC", "GMT+10", "America/New_York", "Australia/Sydney", "Asia/Kolkata"]
+    }
+
+    def "count hits and misses"() {
+        when:
+        3.times { ZoneOffsetCache.currentOffsetMillis() }
+
+        then:
+        ZoneOffsetCache.missCount() == 1
+        ZoneOffsetCache.hitCount() == 2
+    }
+
+    def "refresh on invalidate after default time zone change"() {
+        given:
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT+10"))
+        def before = ZoneOffsetCache.currentOffsetMillis()
+
+        when:
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT-3"))
+        ZoneOffsetCache.invalidate()
+
+        then:
+        before == 10 * 3600000
+        ZoneOffsetCache.currentOffsetMillis() == -3 * 3600000
+        ZoneOffsetCache.missCount() == 2
+    }
+
+    def "recheck default time zone after ZONE_CHECK_MILLIS"() {
+        given:
+        def now = 946728000000L
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT+10"))
+        ZoneOffsetCache.offsetMillis(now)
+
+        when:
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT-3"))
+
+        then:
+        ZoneOffsetCache.offsetMillis(now + ZoneOffsetCache.ZONE_CHECK_MILLIS - 1) == 10 * 3600000
+        ZoneOffsetCache.offsetMillis(now - ZoneOffsetCache.ZONE_CHECK_MILLIS) == 10 * 3600000
+        ZoneOffsetCache.offsetMillis(now + ZoneOffsetCache.ZONE_CHECK_MILLIS) == -3 * 3600000
+        ZoneOffsetCache.missCount() == 2
+    }
+}